@@ -80,6 +80,28 @@ require "jruby_dissector"
 # `%{&some_field}` - an indirect field where the key is indirectly sourced from the value of `some_field`. +
 # e.g. for a text of `error: some_error, some_description`, this `error: %{?err}, %{&err}` will build a key/value of `some_error => some_description`.
 #
+# *Fixed width field notation:* +
+# The value is exactly the declared number of bytes, no search is done for the end of the value. +
+# The width is a `#digits` suffix, the delimiter after the field must follow the value directly and can be empty. +
+# `%{some_field#8}` - a field of 8 bytes +
+# e.g. for a text of `20160525ERR  disk full`, this `%{date#8}%{level#3}%{?#2}%{msg}` will build key/values of `date => 20160525, level => ERR, msg => disk full`.
+#
+# *Spanning field notation:* +
+# The fields after a spanning field are found from the right, the spanning field takes what is left in between. +
+# The spanning value can contain its own delimiter, only one field of a dissection can have the `*` suffix. +
+# `%{some_field*}` - a spanning field +
+# e.g. for a text of `GET /a b/c 200 15`, this `%{verb} %{url*} %{status} %{bytes}` will build key/values of `verb => GET, url => /a b/c, status => 200, bytes => 15`.
+#
+# *Datatype notation:* +
+# The value of a normal field is saved as a number when the key is suffixed with `:int` or `:float`, after any other suffix. +
+# On the other fields the suffix stays part of the key. Since version 2.0.0 a normal field key like `status:int` is no longer saved under that name. +
+# A value that is not a number is kept as a string and the event is tagged as with `convert_datatype`. +
+# e.g. for a text of `GET 200 0.125`, this `%{verb} %{status:int} %{took:float}` will build key/values of `verb => GET, status => 200, took => 0.125`.
+#
+# *Byte class delimiters:* +
+# A delimiter of `%[:space:]`, `%[:blank:]`, `%[:digit:]` or `%[chars]` matches any one byte of the class, add a `+` to match a run of them. +
+# e.g. for a text of `12:00:01 \t  WARN\t\tdisk full`, this `%{ts}%[:space:]+%{level}%[:space:]+%{msg}` will build key/values of `ts => 12:00:01, level => WARN, msg => disk full`.
+#
 # [NOTE]
 # for append and indirect field the key can refer to a field that already exists in the event before dissection.
 #
@@ -165,11 +187,38 @@ module LogStash module Filters class Dissect < LogStash::Filters::Base
   # Append values to the `tags` field when dissection fails
   config :tag_on_failure, :validate => :array, :default => ["_dissectfailure"]
 
+  # The name of the field that holds all the dissected fields as one object. +
+  # When not set the dissected fields are put at the top level of the event. +
+  # Append and indirect fields work on the keys of the target, so field names cannot be nested references. +
+  #
+  # For example
+  # [source, ruby]
+  # filter {
+  #   dissect {
+  #     mapping => {
+  #       "message" => "%{client} %{+client} %{verb} %{request}"
+  #     }
+  #     target => "apache"
+  #   }
+  # }
+  config :target, :validate => :string
+
+  # The number of threads that match the events of a large `multi_filter` batch in parallel. +
+  # The default of 1 dissects every batch on the pipeline worker thread. +
+  # Only the matching is done on the extra threads, the events are changed on the worker thread in batch order.
+  # Batches of fewer than 256 events are always dissected on the worker thread.
+  config :parallelism, :validate => :number, :default => 1
+
   public
 
   def register
+    if @parallelism < 1
+      raise LogStash::ConfigurationError, "Dissect parallelism must be 1 or more, it was #{@parallelism}"
+    end
     needs_decoration = @add_field.size + @add_tag.size + @remove_field.size + @remove_tag.size > 0
-    @dissector = LogStash::Dissector.new(@mapping, self, @convert_datatype, needs_decoration)
+    @dissector = LogStash::Dissector.new(@mapping, self, @convert_datatype, needs_decoration, @target, @parallelism)
+    # compiled mappings are shared by all pipelines, a reloaded pipeline reuses those of its previous run
+    @logger.debug("Dissect compiled mapping cache", LogStash::Dissector.cache_stats)
   end
 
   def filter(event)
@@ -184,19 +233,25 @@ module LogStash module Filters class Dissect < LogStash::Filters::Base
     events
   end
 
+  def close
+    @dissector.close if @dissector
+  end
+
   # this method is stubbed during testing
   # a reference to it in the JRuby Extension `initialize` may not be valid
-  def metric_increment(metric_name)
-    metric.increment(metric_name)
+  def metric_increment(metric_name, count = 1)
+    metric.increment(metric_name, count)
   end
 
   # the JRuby Extension `initialize` method stores a DynamicMethod reference to this method
-  def increment_matches_metric
-    metric_increment(:matches)
+  # it is called once per event or batch with the number of matches counted in Java
+  def increment_matches_metric(count = 1)
+    metric_increment(:matches, count)
   end
 
   # the JRuby Extension `initialize` method stores a DynamicMethod reference to this method
-  def increment_failures_metric
-    metric_increment(:failures)
+  # it is called once per event or batch with the number of failures counted in Java
+  def increment_failures_metric(count = 1)
+    metric_increment(:failures, count)
   end
 end end end
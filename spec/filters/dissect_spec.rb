@@ -189,6 +189,62 @@ describe LogStash::Filters::Dissect do
     end
   end
 
+  describe "dissection with typed fields" do
+    subject(:filter) { LogStash::Filters::Dissect.new(config) }
+    let(:config) do
+      {
+        "mapping" => { "message" => "%{verb} %{status:int} %{took:float} %{size}" },
+        "convert_datatype" => { "size" => "int" }
+      }
+    end
+
+    it "saves numbers parsed from the text" do
+      event = LogStash::Event.new("message" => "GET 200 0.125 1024")
+      filter.register
+      filter.filter(event)
+      expect(event.get("verb")).to eq("GET")
+      expect(event.get("status")).to eq(200)
+      expect(event.get("took")).to eq(0.125)
+      expect(event.get("size")).to eq(1024)
+      expect(event.get("tags")).to be_nil
+    end
+
+    it "keeps a value that is not a number as text and tags the event" do
+      event = LogStash::Event.new("message" => "GET OK 0.125 big")
+      filter.register
+      filter.filter(event)
+      expect(event.get("status")).to eq("OK")
+      expect(event.get("size")).to eq("big")
+      expect(event.get("tags")).to eq(["_dataconversionuncoercible_status_int", "_dataconversionuncoercible_size_int"])
+    end
+  end
+
+  describe "dissection into a target" do
+    let(:config) do <<-CONFIG
+      filter {
+        dissect {
+          mapping => {
+            message => "%{client} %{+client} %{?key} %{&key} %{code}"
+          }
+          convert_datatype => {
+            "[apache][code]" => "int"
+          }
+          target => "apache"
+        }
+      }
+    CONFIG
+    end
+
+    sample({"message" => "10.0.0.1 proxy verb GET 200", "apache" => {"request" => "/index.html"}}) do
+      expect(subject.get("[apache][client]")).to eq("10.0.0.1 proxy")
+      expect(subject.get("[apache][verb]")).to eq("GET")
+      expect(subject.get("[apache][code]")).to eq(200)
+      expect(subject.get("[apache][request]")).to eq("/index.html")
+      expect(subject.get("client")).to be_nil
+      expect(subject.get("tags")).to be_nil
+    end
+  end
+
   describe "dissect with skip and append" do
     let(:config) do <<-CONFIG
         filter {
@@ -258,6 +314,30 @@ describe LogStash::Filters::Dissect do
         expect{filter.register}.to raise_exception(LogStash::FieldFormatError, msg)
       end
     end
+
+    context "when a source is not a valid field reference" do
+      let(:config)     { {"mapping" => {"[a" => "%{a} %{b}"}}}
+      it "raises an error in register" do
+        msg = /Source is not a valid field reference: \[a/
+        expect{filter.register}.to raise_exception(LogStash::FieldFormatError, msg)
+      end
+    end
+
+    context "when a convert_datatype field is not a valid field reference" do
+      let(:config)     { {"mapping" => {"message" => "%{a} %{b}"}, "convert_datatype" => {"[a" => "int"}}}
+      it "raises an error in register" do
+        msg = /Conversion field is not a valid field reference: \[a/
+        expect{filter.register}.to raise_exception(LogStash::FieldFormatError, msg)
+      end
+    end
+
+    context "when a delimiter is an unknown byte class" do
+      let(:config)     { {"mapping" => {"message" => "%{a}%[:alpha:]%{b}"}}}
+      it "raises an error in register" do
+        msg = /Unknown delimiter class: \[:alpha:\]/
+        expect{filter.register}.to raise_exception(LogStash::FieldFormatError, msg)
+      end
+    end
   end
 
   describe "metrics tracking" do
@@ -271,21 +351,82 @@ describe LogStash::Filters::Dissect do
       let(:event) { LogStash::Event.new("message" => "1 2") }
 
       it "should increment the matches metric" do
-        expect(subject).to receive(:metric_increment).once.with(:matches)
+        expect(subject).to receive(:metric_increment).once.with(:matches, 1)
         subject.filter(event)
       end
+
+      it "should increment the matches metric once per batch" do
+        expect(subject).to receive(:metric_increment).once.with(:matches, 3)
+        subject.multi_filter([event, LogStash::Event.new("message" => "3 4"), LogStash::Event.new("message" => "5 6")])
+      end
     end
 
     context "when match is not successful" do
       let(:event) { LogStash::Event.new("message" => "") }
 
       it "should increment the failures metric" do
-        expect(subject).to receive(:metric_increment).once.with(:failures)
+        expect(subject).to receive(:metric_increment).once.with(:failures, 1)
         subject.filter(event)
       end
     end
   end
 
+  describe "dissection of a batch" do
+    let(:options) { { "mapping" => { "message" => "%{a} %{b}", "a" => "%{x}-%{y}" }, "convert_datatype" => { "y" => "int" } } }
+    subject { described_class.new(options) }
+    let(:matching) { LogStash::Event.new("message" => "1-2 3") }
+    let(:failing) { LogStash::Event.new("message" => "12") }
+    let(:cancelled) { LogStash::Event.new("message" => "4-5 6").tap(&:cancel) }
+
+    before(:each) do
+      subject.register
+      subject.multi_filter([matching, failing, cancelled])
+    end
+
+    it "dissects every event with all the mappings in order" do
+      expect(matching.get("b")).to eq("3")
+      expect(matching.get("x")).to eq("1")
+      expect(matching.get("y")).to eq(2)
+      expect(matching.get("tags")).to be_nil
+    end
+
+    it "tags the events that fail" do
+      expect(failing.get("a")).to be_nil
+      # the conversion of a field that was not dissected is skipped
+      expect(failing.get("tags")).to eq(["_dissectfailure"])
+    end
+
+    it "skips the cancelled events" do
+      expect(cancelled.get("a")).to be_nil
+    end
+  end
+
+  describe "dissection of a batch in parallel" do
+    let(:options) { { "mapping" => { "message" => "%{a} %{b}", "[d][a]" => "%{x}-%{y}" }, "target" => "d", "parallelism" => 4 } }
+    subject { described_class.new(options) }
+    let(:events) do
+      (0...1000).map { |i| LogStash::Event.new("message" => i % 10 == 0 ? "#{i}" : "#{i}-#{i + 1} #{i}") }
+    end
+
+    before(:each) { subject.register }
+    after(:each) { subject.close }
+
+    it "dissects and tags every event as the sequential dissection does" do
+      expect(subject).to receive(:metric_increment).once.with(:matches, 1800)
+      expect(subject).to receive(:metric_increment).once.with(:failures, 200)
+      subject.multi_filter(events)
+      events.each_with_index do |event, i|
+        if i % 10 == 0
+          expect(event.get("tags")).to eq(["_dissectfailure"])
+        else
+          expect(event.get("[d][b]")).to eq(i.to_s)
+          expect(event.get("[d][y]")).to eq((i + 1).to_s)
+          expect(event.get("tags")).to be_nil
+        end
+      end
+    end
+  end
+
   describe "When the delimiters contain '{' and '}'" do
     let(:options) { { "mapping" => { "message" => "{%{a}}{%{b}}%{rest}" } } }
     subject { described_class.new(options) }
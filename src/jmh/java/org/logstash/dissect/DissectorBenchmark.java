@@ -1,5 +1,7 @@
 package org.logstash.dissect;
 
+import org.logstash.Event;
+import org.logstash.FieldReference;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
 import org.openjdk.jmh.runner.Runner;
@@ -7,9 +9,11 @@ import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.MICROSECONDS)
@@ -53,6 +57,102 @@ public class DissectorBenchmark {
         );
     }
 
+    @Benchmark
+    public void fManyFields(final Blackhole bh) {
+        bh.consume(
+                DissectManyFields.DISSECTOR.dissect(DissectManyFields.SRC.getBytes(), DissectorBenchmark.DissectMap.map())
+        );
+    }
+
+    @Benchmark
+    public void gManyFieldsPerFieldSearch(final Blackhole bh) {
+        bh.consume(
+                DissectManyFields.PER_FIELD_DISSECTOR.dissect(DissectManyFields.SRC.getBytes(), DissectorBenchmark.DissectMap.map())
+        );
+    }
+    @Benchmark
+    public void hPaddedColumns(final Blackhole bh) {
+        bh.consume(
+                DissectPaddedColumns.DISSECTOR.dissect(DissectPaddedColumns.SRC.getBytes(), DissectorBenchmark.DissectMap.map())
+        );
+    }
+
+    // the source bytes and the map are reused, what is left are the allocations of the dissection itself
+    // run with the gc profiler to see them: $ ./gradlew jmh -Pjmh.includes=iReusedInputs
+    @Benchmark
+    public void iReusedInputs(final DissectReusedInputs state, final Blackhole bh) {
+        state.map.clear();
+        bh.consume(DissectReusedInputs.DISSECTOR.dissect(state.bytes, state.map));
+    }
+
+    // building the values of an ASCII source: one ASCII check and Latin-1 copies against UTF-8 decoding
+    @Benchmark
+    public void jAsciiValuesLatin1(final DecodeValues state, final Blackhole bh) {
+        final byte[] bytes = state.bytes;
+        if (Delimiter.LOCATORS.isAscii(bytes, 0, bytes.length)) {
+            for (int i = 0; i < DecodeValues.COUNT; i++) {
+                bh.consume(new String(bytes, i * DecodeValues.STRIDE, DecodeValues.WIDTH, StandardCharsets.ISO_8859_1));
+            }
+        }
+    }
+
+    @Benchmark
+    public void kAsciiValuesUtf8(final DecodeValues state, final Blackhole bh) {
+        final byte[] bytes = state.bytes;
+        for (int i = 0; i < DecodeValues.COUNT; i++) {
+            bh.consume(new String(bytes, i * DecodeValues.STRIDE, DecodeValues.WIDTH, StandardCharsets.UTF_8));
+        }
+    }
+
+    // many mappings of mixed field kinds and delimiter lengths share the dissect call sites
+    @Benchmark
+    public void lManyMappingsInterpreted(final ManyMappings state, final Blackhole bh) {
+        for (int i = 0; i < ManyMappings.COUNT; i++) {
+            state.map.clear();
+            bh.consume(state.interpreted[i].dissect(state.bytes[i], state.map));
+        }
+    }
+
+    @Benchmark
+    public void mManyMappingsSpecialized(final ManyMappings state, final Blackhole bh) {
+        for (int i = 0; i < ManyMappings.COUNT; i++) {
+            state.map.clear();
+            bh.consume(state.specialized[i].dissect(state.bytes[i], state.map));
+        }
+    }
+
+    // numeric values parsed from the source bytes as they are saved against text values converted afterwards
+    @Benchmark
+    public void nNumbersTyped(final NumericFields state, final Blackhole bh) {
+        final Event event = new Event();
+        bh.consume(NumericFields.TYPED.dissect(state.bytes, event));
+        bh.consume(event);
+    }
+
+    @Benchmark
+    public void oNumbersConvertedAfter(final NumericFields state, final Blackhole bh) {
+        final Event event = new Event();
+        bh.consume(NumericFields.UNTYPED.dissect(state.bytes, event));
+        for (final FieldReference field : NumericFields.FIELDS) {
+            Converters.INT.convert(event, field);
+        }
+        bh.consume(event);
+    }
+
+    // the search part of l and m, without building the output
+    @Benchmark
+    public void pManyMappingsMatchInterpreted(final ManyMappings state, final Blackhole bh) {
+        for (int i = 0; i < ManyMappings.COUNT; i++) {
+            bh.consume(state.interpreted[i].match(state.bytes[i], 0, state.bytes[i].length));
+        }
+    }
+
+    @Benchmark
+    public void qManyMappingsMatchSpecialized(final ManyMappings state, final Blackhole bh) {
+        for (int i = 0; i < ManyMappings.COUNT; i++) {
+            bh.consume(state.specialized[i].match(state.bytes[i], 0, state.bytes[i].length));
+        }
+    }
 
     @State(Scope.Thread)
     public static class DissectOneDelim {
@@ -78,6 +178,82 @@ public class DissectorBenchmark {
         public static final Dissector DISSECTOR = Dissector.create(DissectorBenchmark.Source.buildMpp(DissectorBenchmark.Source.delimsX, 10));
     }
 
+    @State(Scope.Thread)
+    public static class DissectManyFields {
+        public static final String SRC = DissectorBenchmark.Source.buildSrc(DissectorBenchmark.Source.delims1, 24);
+        public static final Dissector DISSECTOR = Dissector.create(DissectorBenchmark.Source.buildMpp(DissectorBenchmark.Source.delims1, 24), 20);
+        public static final Dissector PER_FIELD_DISSECTOR = Dissector.create(DissectorBenchmark.Source.buildMpp(DissectorBenchmark.Source.delims1, 24));
+    }
+
+    @State(Scope.Thread)
+    public static class DissectPaddedColumns {
+        public static final String SRC = DissectorBenchmark.Source.buildPadded(8, 20, 40);
+        public static final Dissector DISSECTOR = Dissector.create(DissectorBenchmark.Source.buildPaddedMpp(8));
+    }
+
+    @State(Scope.Thread)
+    public static class DissectReusedInputs {
+        public static final Dissector DISSECTOR = Dissector.create(DissectorBenchmark.Source.buildMpp(DissectorBenchmark.Source.delims1, 10));
+        public final byte[] bytes = DissectorBenchmark.Source.buildSrc(DissectorBenchmark.Source.delims1, 10).getBytes();
+        public final Map<String, Object> map = new HashMap<>();
+    }
+
+    @State(Scope.Thread)
+    public static class DecodeValues {
+        // twenty values of twelve bytes, each followed by a space
+        public static final int COUNT = 20;
+        public static final int WIDTH = 12;
+        public static final int STRIDE = WIDTH + 1;
+        public final byte[] bytes = "192.168.0.17 ".repeat(COUNT).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @State(Scope.Thread)
+    public static class NumericFields {
+        public static final Dissector TYPED = Dissector.create("%{a:int} %{b:int} %{c:int} %{d:int} %{e:int} %{f:int} %{g:int} %{h:int}");
+        public static final Dissector UNTYPED = Dissector.create("%{a} %{b} %{c} %{d} %{e} %{f} %{g} %{h}");
+        public static final FieldReference[] FIELDS = Stream.of("a", "b", "c", "d", "e", "f", "g", "h")
+                .map(FieldReference::from).toArray(FieldReference[]::new);
+        public final byte[] bytes = "200 1534 0 86400 1234567890 42 65535 1700000000123".getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @State(Scope.Thread)
+    public static class ManyMappings {
+        private static final String[] MAPPINGS = {
+                "%{a} %{b} %{c} %{d}",
+                "%{a}, %{b}, %{c}, %{d}",
+                "[%{ts}] %{+ts} %{code} %{msg}",
+                "%{?k1}=%{&k1}; %{?k2}=%{&k2}",
+                "%{a->} %{b} | %{c} :: %{d}",
+                "%{a#4}-%{b}-%{c}",
+                "%{a}%[:space:]+%{b}%[:space:]+%{c}",
+                "%{head} %{body*} (%{tail})",
+        };
+        private static final String[] SOURCES = {
+                "alpha beta gamma delta",
+                "alpha, beta, gamma, delta",
+                "[Mar 16] 00:01:25 200 request served",
+                "host=web01; level=warn",
+                "alpha     beta | gamma :: delta",
+                "2016-05-25-rest",
+                "one  \t two   three",
+                "GET /a (b) /c (done)",
+        };
+        public static final int COUNT = MAPPINGS.length;
+        public final Dissector[] interpreted = new Dissector[COUNT];
+        public final Dissector[] specialized = new Dissector[COUNT];
+        public final byte[][] bytes = new byte[COUNT][];
+        public final Map<String, Object> map = new HashMap<>();
+
+        @Setup
+        public void setup() {
+            for (int i = 0; i < COUNT; i++) {
+                interpreted[i] = Dissector.create(MAPPINGS[i], Dissector.SINGLE_PASS_MIN_FIELDS, -1);
+                specialized[i] = Dissector.create(MAPPINGS[i], Dissector.SINGLE_PASS_MIN_FIELDS, 0);
+                bytes[i] = SOURCES[i].getBytes(StandardCharsets.UTF_8);
+            }
+        }
+    }
+
     @State(Scope.Thread)
     public static class DissectMap {
         public static Map<String, Object> map() {
@@ -107,6 +283,30 @@ public class DissectorBenchmark {
             return sb.toString();
         }
 
+        // column aligned text, each value is followed by between min and max spaces
+        public static String buildPadded(final int count, final int min, final int max) {
+            final StringBuilder sb = new StringBuilder();
+            for(int i = 0; i < count; i++) {
+                final String value = src.substring(i * 5, i * 5 + 5);
+                sb.append(value);
+                final int padding = min + (i * 7) % (max - min + 1);
+                for(int p = 0; p < padding; p++) {
+                    sb.append(' ');
+                }
+            }
+            sb.append("MMMMM");
+            return sb.toString();
+        }
+
+        public static String buildPaddedMpp(final int count) {
+            final StringBuilder sb = new StringBuilder();
+            for(int i = 0; i < count; i++) {
+                sb.append("%{f").append(i).append("->} ");
+            }
+            sb.append("%{last}");
+            return sb.toString();
+        }
+
         public static String buildMpp(final String[] delims, final int count) {
             final int d = delims.length;
             final StringBuilder sb = new StringBuilder();
@@ -0,0 +1,17 @@
+package org.logstash.dissect;
+
+import org.logstash.ConvertedMap;
+import org.logstash.Event;
+
+import java.util.Map;
+
+// finds the values of one mapping in a source and saves them, see MappingMatcher
+interface CompiledMapping {
+    boolean match(byte[] source, int begin, int end, Position position, ValueResolver values);
+
+    void save(Map<String, Object> keyValueMap, ValueResolver values);
+
+    void save(Event event, ValueResolver values);
+
+    void saveTarget(ConvertedMap target, ValueResolver values);
+}
@@ -3,8 +3,11 @@ package org.logstash.dissect;
 import org.jruby.RubyArray;
 import org.jruby.RubyHash;
 import org.jruby.runtime.builtin.IRubyObject;
+import org.logstash.FieldReference;
+import org.logstash.dissect.fields.InvalidFieldException;
 
 import java.io.Serializable;
+import java.util.stream.IntStream;
 
 final class ConvertPair implements Serializable {
     private static final long serialVersionUID = 7227865769253897223L;
@@ -12,6 +15,10 @@ final class ConvertPair implements Serializable {
     static final ConvertPair[] EMPTY_ARRAY = new ConvertPair[0];
 
     static ConvertPair[] createArrayFromHash(final RubyHash hash) {
+        return createArrayFromHash(hash, DissectPair.EMPTY_ARRAY, null);
+    }
+
+    static ConvertPair[] createArrayFromHash(final RubyHash hash, final DissectPair[] dissectors, final FieldReference target) {
         if (hash.isNil()) {
             return EMPTY_ARRAY;
         }
@@ -22,6 +29,7 @@ final class ConvertPair implements Serializable {
         final ConvertPair[] pairs = new ConvertPair[convertPairs.length];
         for (int idx = 0; idx < convertPairs.length; idx++) {
             pairs[idx] = create((RubyArray) convertPairs[idx]);
+            pairs[idx].producers = producersOf(pairs[idx].reference, dissectors, target);
         }
         return pairs;
     }
@@ -30,20 +38,48 @@ final class ConvertPair implements Serializable {
         return new ConvertPair(pair.first().toString(), pair.last().toString());
     }
 
+    // the indexes of the mappings that set the field, the conversion is skipped when none of them matched
+    private static int[] producersOf(final FieldReference reference, final DissectPair[] dissectors, final FieldReference target) {
+        return IntStream.range(0, dissectors.length)
+                .filter(idx -> !dissectors[idx].isEmpty() && dissectors[idx].dissector().produces(reference, target))
+                .toArray();
+    }
+
     private final String source;
+    private final transient FieldReference reference;
     private final String _type;
     private final Converter convertion;
+    // the failure tags are built once
+    private final String nullValueTag;
+    private final String uncoercibleTag;
+    private transient int[] producers;
 
     private ConvertPair(final String left, final String right) {
         source = left;
+        reference = reference(source);
         _type = right;
         convertion = Converters.select(_type);
+        nullValueTag = String.format("_dataconversionnullvalue_%s_%s", source, _type);
+        uncoercibleTag = String.format("_dataconversionuncoercible_%s_%s", source, _type);
+        producers = new int[0];
+    }
+
+    private static FieldReference reference(final String source) {
+        try {
+            return FieldReference.from(source);
+        } catch (final FieldReference.IllegalSyntaxException e) {
+            throw new InvalidFieldException(String.format("Conversion field is not a valid field reference: %s", source), e);
+        }
     }
 
     String src() {
         return source;
     }
 
+    FieldReference reference() {
+        return reference;
+    }
+
     String type() {
         return _type;
     }
@@ -51,4 +87,16 @@ final class ConvertPair implements Serializable {
     Converter converter() {
         return convertion;
     }
+
+    String nullValueTag() {
+        return nullValueTag;
+    }
+
+    String uncoercibleTag() {
+        return uncoercibleTag;
+    }
+
+    int[] producers() {
+        return producers;
+    }
 }
@@ -1,9 +1,28 @@
 package org.logstash.dissect;
 
 import org.logstash.Event;
+import org.logstash.FieldReference;
 
 interface Converter {
-    void convert(Event e, String src);
+    // the outcome of a conversion, a value that cannot be converted is left as it is
+    enum Status {
+        CONVERTED, NULL_VALUE, UNCOERCIBLE
+    }
+
+    // converts the value in place without throwing for values that are missing or not numbers
+    Status tryConvert(Event e, FieldReference src);
+
+    default void convert(final Event e, final FieldReference src) {
+        final Status status = tryConvert(e, src);
+        if (status != Status.CONVERTED) {
+            throw new NumberFormatException(String.format("Value of %s cannot be converted: %s", src.getKey(), status));
+        }
+    }
+
+    default void convert(final Event e, final String src) {
+        convert(e, FieldReference.from(src));
+    }
+
     default boolean isInvalid() {
         return false;
     }
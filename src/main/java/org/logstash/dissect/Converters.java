@@ -1,27 +1,110 @@
 package org.logstash.dissect;
 
 import org.logstash.Event;
+import org.logstash.FieldReference;
+import org.logstash.Javafier;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 
 public enum Converters implements Converter {
     INT {
         @Override
-        public void convert(final Event e, final String src) {
-            final Object value = e.getField(src);
-            e.setField(src, new BigDecimal(String.valueOf(value)).toBigInteger());
+        public Status tryConvert(final Event e, final FieldReference src) {
+            final Object value = e.getUnconvertedField(src);
+            if (value == null) {
+                return Status.NULL_VALUE;
+            }
+            final String text = String.valueOf(Javafier.deep(value));
+            if (isPlainLong(text)) {
+                // most integers fit a long, no BigDecimal is built for them
+                e.setField(src, BigInteger.valueOf(Long.parseLong(text)));
+                return Status.CONVERTED;
+            }
+            final BigDecimal decimal = parseDecimal(text);
+            if (decimal == null) {
+                return Status.UNCOERCIBLE;
+            }
+            e.setField(src, decimal.toBigInteger());
+            return Status.CONVERTED;
+        }
+
+        @Override
+        public Object parse(final byte[] source, final int begin, final int length) {
+            final int end = begin + length;
+            final int digitsStart = begin < end && (source[begin] == '-' || source[begin] == '+') ? begin + 1 : begin;
+            if (digitsStart < end && end - digitsStart <= MAX_LONG_DIGITS) {
+                final long value = parseDigits(source, digitsStart, end);
+                if (value >= 0) {
+                    return BigInteger.valueOf(source[begin] == '-' ? -value : value);
+                }
+            }
+            // decimals, exponents and longer numbers are rare, they go through BigDecimal
+            final BigDecimal decimal = parseDecimal(new String(source, begin, length, StandardCharsets.UTF_8));
+            return decimal == null ? null : decimal.toBigInteger();
         }
     },
     FLOAT {
         @Override
-        public void convert(final Event e, final String src) {
-            final Object value = e.getField(src);
-            e.setField(src, new BigDecimal(String.valueOf(value)));
+        public Status tryConvert(final Event e, final FieldReference src) {
+            final Object value = e.getUnconvertedField(src);
+            if (value == null) {
+                return Status.NULL_VALUE;
+            }
+            final String text = String.valueOf(Javafier.deep(value));
+            final BigDecimal decimal = parseDecimal(text);
+            if (decimal == null) {
+                return Status.UNCOERCIBLE;
+            }
+            e.setField(src, decimal);
+            return Status.CONVERTED;
+        }
+
+        @Override
+        public Object parse(final byte[] source, final int begin, final int length) {
+            final int end = begin + length;
+            final int integerStart = begin < end && (source[begin] == '-' || source[begin] == '+') ? begin + 1 : begin;
+            int idx = integerStart;
+            while (idx < end && isDigit(source[idx])) {
+                idx++;
+            }
+            final int integerEnd = idx;
+            int fractionStart = idx;
+            if (idx < end && source[idx] == '.') {
+                fractionStart = ++idx;
+                while (idx < end && isDigit(source[idx])) {
+                    idx++;
+                }
+            }
+            final int scale = idx - fractionStart;
+            final int digits = integerEnd - integerStart + scale;
+            if (idx == end && digits > 0 && digits <= MAX_LONG_DIGITS) {
+                // a plain decimal is its digits as one long and the number of fraction digits as the scale, exactly as BigDecimal reads it
+                final long unscaled = parseDigits(source, integerStart, integerEnd) * POWERS_OF_TEN[scale]
+                        + parseDigits(source, fractionStart, idx);
+                return BigDecimal.valueOf(source[begin] == '-' ? -unscaled : unscaled, scale);
+            }
+            return parseDecimal(new String(source, begin, length, StandardCharsets.UTF_8));
         }
     },
     NULL_CONVERTER {
         @Override
-        public void convert(final Event e, final String src) {}
+        public Status tryConvert(final Event e, final FieldReference src) {
+            // never used, an invalid datatype is rejected when the filter is initialized
+            return Status.CONVERTED;
+        }
+
+        @Override
+        public void convert(final Event e, final FieldReference src) {}
+
+        @Override
+        public Object parse(final byte[] source, final int begin, final int length) {
+            return null;
+        }
 
         @Override
         public boolean isInvalid() {
@@ -29,6 +112,144 @@ public enum Converters implements Converter {
         }
     };
 
+    // the longest digit strings that always fit a long
+    private static final int MAX_LONG_DIGITS = 18;
+    private static final long[] POWERS_OF_TEN = new long[MAX_LONG_DIGITS + 1];
+    // reads eight bytes as a long, the first byte is the lowest
+    private static final VarHandle EIGHT_BYTES = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int idx = 1; idx < POWERS_OF_TEN.length; idx++) {
+            POWERS_OF_TEN[idx] = POWERS_OF_TEN[idx - 1] * 10;
+        }
+    }
+
+    /**
+     * The value of a number held in part of a byte array, without building a String for the common cases.
+     *
+     * @param source the bytes that hold the text
+     * @param begin  the position of the first byte of the text
+     * @param length the number of bytes in the text
+     * @return the value as this type, null when the text is not a number
+     */
+    public abstract Object parse(byte[] source, int begin, int length);
+
+    /*
+        The value of a run of at most 18 digits or -1 when some byte is not a digit.
+        Eight digits are checked and added up at a time in a long (SWAR), the rest one by one.
+     */
+    static long parseDigits(final byte[] source, final int from, final int to) {
+        long value = 0;
+        int idx = from;
+        for (; to - idx >= Long.BYTES; idx += Long.BYTES) {
+            final long chunk = (long) EIGHT_BYTES.get(source, idx);
+            if (!isEightDigits(chunk)) {
+                return -1;
+            }
+            value = value * 100_000_000L + eightDigits(chunk);
+        }
+        for (; idx < to; idx++) {
+            if (!isDigit(source[idx])) {
+                return -1;
+            }
+            value = value * 10 + (source[idx] - '0');
+        }
+        return value;
+    }
+
+    // every byte is 0x30 to 0x39: the high nibble is 3 and adding 6 does not carry into it
+    private static boolean isEightDigits(final long chunk) {
+        return ((chunk & 0xF0F0F0F0F0F0F0F0L) | (((chunk + 0x0606060606060606L) & 0xF0F0F0F0F0F0F0F0L) >>> 4)) == 0x3333333333333333L;
+    }
+
+    // combines the digits pairwise, then the pairs into fours and the fours into the eight digit value
+    private static long eightDigits(final long chunk) {
+        long value = chunk & 0x0F0F0F0F0F0F0F0FL;
+        value = (value * (1 + (10L << 8))) >>> 8;
+        value = ((value & 0x00FF00FF00FF00FFL) * (1 + (100L << 16))) >>> 16;
+        return ((value & 0x0000FFFF0000FFFFL) * (1 + (10000L << 32))) >>> 32;
+    }
+
+    private static boolean isDigit(final byte b) {
+        return b >= '0' && b <= '9';
+    }
+    // larger exponents are out of the range of BigDecimal
+    private static final int MAX_EXPONENT_DIGITS = 9;
+
+    // null when the text is not a number, only text with non ASCII characters is left to BigDecimal to decide
+    private static BigDecimal parseDecimal(final String text) {
+        if (isDecimal(text)) {
+            return new BigDecimal(text);
+        }
+        for (int idx = 0; idx < text.length(); idx++) {
+            if (text.charAt(idx) >= 0x80) {
+                // BigDecimal also takes the digits of other scripts, this rare case may throw
+                try {
+                    return new BigDecimal(text);
+                } catch (final NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    // an optional sign and at most 18 digits
+    static boolean isPlainLong(final CharSequence text) {
+        final int length = text.length();
+        int idx = length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+') ? 1 : 0;
+        if (idx == length || length - idx > MAX_LONG_DIGITS) {
+            return false;
+        }
+        for (; idx < length; idx++) {
+            if (!isDigit(text.charAt(idx))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the syntax that BigDecimal accepts, checked up front so that a value that is not a number does not throw
+    static boolean isDecimal(final CharSequence text) {
+        final int length = text.length();
+        int idx = length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+') ? 1 : 0;
+        int digits = 0;
+        while (idx < length && isDigit(text.charAt(idx))) {
+            idx++;
+            digits++;
+        }
+        if (idx < length && text.charAt(idx) == '.') {
+            idx++;
+            while (idx < length && isDigit(text.charAt(idx))) {
+                idx++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (idx < length && (text.charAt(idx) == 'e' || text.charAt(idx) == 'E')) {
+            idx++;
+            if (idx < length && (text.charAt(idx) == '-' || text.charAt(idx) == '+')) {
+                idx++;
+            }
+            final int exponentStart = idx;
+            while (idx < length && isDigit(text.charAt(idx))) {
+                idx++;
+            }
+            final int exponentDigits = idx - exponentStart;
+            if (exponentDigits == 0 || exponentDigits > MAX_EXPONENT_DIGITS) {
+                return false;
+            }
+        }
+        return idx == length;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
     public static Converters select(final String toType) {
         Converters result = NULL_CONVERTER;
         try {
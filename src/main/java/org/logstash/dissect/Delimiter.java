@@ -1,46 +1,104 @@
 package org.logstash.dissect;
 
+import org.logstash.dissect.fields.InvalidFieldException;
+import org.logstash.dissect.search.ByteClassLocator;
 import org.logstash.dissect.search.DelimiterLocator;
-import org.logstash.dissect.search.DoubleByteLocator;
+import org.logstash.dissect.search.LocatorStrategy;
 import org.logstash.dissect.search.MultiByteLocator;
-import org.logstash.dissect.search.SingleByteLocator;
 import org.logstash.dissect.search.ZeroByteLocator;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 public final class Delimiter {
+    // -Dorg.logstash.dissect.locator=vector|swar|scalar overrides the automatic choice
+    static final LocatorStrategy LOCATORS = LocatorStrategy.select(System.getProperty(LocatorStrategy.PROPERTY));
+    // a delimiter of `%[:space:]` matches any one whitespace byte, `%[:space:]+` matches a run of them
+    private static final Pattern BYTE_CLASS_PATTERN = Pattern.compile("^%\\[(:\\w+:|[^\\]]+)](\\+?)$");
+    // one byte stands in for the class, a class delimiter always matches exactly one byte
+    private static final byte[] ONE_BYTE = new byte[1];
+
     private final byte[] needle;
     private final String delimiter;
     private final DelimiterLocator strategy;
-    private boolean greedy;
+    private final boolean byteClass;
+    // a run of class bytes is a class delimiter that is always greedy
+    private final boolean run;
 
     private Delimiter(final String delimiter, final byte[] bytes, final DelimiterLocator strategy) {
+        this(delimiter, bytes, strategy, false, false);
+    }
+
+    private Delimiter(final String delimiter, final byte[] bytes, final DelimiterLocator strategy, final boolean byteClass, final boolean run) {
         this.delimiter = delimiter;
         this.needle = bytes;
         this.strategy = strategy;
-        greedy = false;
+        this.byteClass = byteClass;
+        this.run = run;
     }
 
     public static Delimiter create(final String delim) {
+        final Matcher matcher = BYTE_CLASS_PATTERN.matcher(delim);
+        if (matcher.matches()) {
+            final ByteClassLocator locator;
+            try {
+                locator = ByteClassLocator.create(matcher.group(1));
+            } catch (final IllegalArgumentException e) {
+                throw new InvalidFieldException(e.getMessage(), e);
+            }
+            return new Delimiter(delim, ONE_BYTE, locator, true, !matcher.group(2).isEmpty());
+        }
         final byte[] bytes = delim.getBytes();
         switch (bytes.length) {
             case 0:
                 return new Delimiter(delim, bytes, ZeroByteLocator.INSTANCE);
             case 1:
-                return new Delimiter(delim, bytes, SingleByteLocator.INSTANCE);
+                return new Delimiter(delim, bytes, LOCATORS.singleByte());
             case 2:
-                return new Delimiter(delim, bytes, DoubleByteLocator.INSTANCE);
+                return new Delimiter(delim, bytes, LOCATORS.doubleByte());
             default:
-                return new Delimiter(delim, bytes, MultiByteLocator.INSTANCE);
+                return new Delimiter(delim, bytes, MultiByteLocator.create(bytes));
         }
     }
 
     public int indexOf(final byte[] haystack, final int offset) {
-        return strategy.indexOf(this.needle, haystack, offset);
+        return strategy.indexOf(this.needle, haystack, offset, haystack.length);
+    }
+
+    // the search does not look at or beyond end, the haystack may hold more than the text being dissected
+    public int indexOf(final byte[] haystack, final int offset, final int end) {
+        return strategy.indexOf(this.needle, haystack, offset, end);
+    }
+
+    // is the delimiter at an exact position before end, an empty delimiter is always there
+    public boolean isAt(final byte[] haystack, final int offset, final int end) {
+        return strategy.isAt(this.needle, haystack, offset, end);
+    }
+
+    public int skipRepeats(final byte[] haystack, final int offset) {
+        return strategy.skipRepeats(this.needle, haystack, offset, haystack.length);
+    }
+
+    public int skipRepeats(final byte[] haystack, final int offset, final int end) {
+        return strategy.skipRepeats(this.needle, haystack, offset, end);
+    }
+
+    public int lastIndexOf(final byte[] haystack, final int from, final int lowest) {
+        return strategy.lastIndexOf(this.needle, haystack, from, lowest);
     }
 
     public int size() {
         return this.needle.length;
     }
 
+    byte[] bytes() {
+        return this.needle;
+    }
+
+    DelimiterLocator locator() {
+        return this.strategy;
+    }
+
     public String getDelimiter() {
         return this.delimiter;
     }
@@ -53,11 +111,12 @@ public final class Delimiter {
                 '}';
     }
 
-    public boolean isGreedy() {
-        return greedy;
+    public boolean isByteClass() {
+        return byteClass;
     }
 
-    public void setGreedy(final boolean greedy) {
-        this.greedy = greedy;
+    // the repeats of a run are always skipped, whatever the field before it
+    public boolean isRun() {
+        return run;
     }
 }
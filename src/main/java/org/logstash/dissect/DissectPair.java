@@ -4,8 +4,11 @@ import org.jruby.RubyArray;
 import org.jruby.RubyHash;
 import org.jruby.RubyString;
 import org.jruby.runtime.builtin.IRubyObject;
+import org.logstash.FieldReference;
+import org.logstash.dissect.fields.InvalidFieldException;
 
 import java.io.Serializable;
+import java.util.Map;
 
 final class DissectPair implements Serializable {
     private static final long serialVersionUID = 8736122873297905474L;
@@ -13,6 +16,10 @@ final class DissectPair implements Serializable {
     static final DissectPair[] EMPTY_ARRAY = new DissectPair[0];
 
     static DissectPair[] createArrayFromHash(final RubyHash hash) {
+        return createArrayFromHash(hash, false);
+    }
+
+    static DissectPair[] createArrayFromHash(final RubyHash hash, final boolean targeted) {
         if (hash.isNil()) {
             return EMPTY_ARRAY;
         }
@@ -23,6 +30,9 @@ final class DissectPair implements Serializable {
         final DissectPair[] pairs = new DissectPair[dissectPairs.length];
         for (int idx = 0; idx < dissectPairs.length; idx++) {
             pairs[idx] = create((RubyArray) dissectPairs[idx]);
+            if (targeted) {
+                pairs[idx].dissector().checkTargetKeys();
+            }
         }
         return pairs;
     }
@@ -33,20 +43,36 @@ final class DissectPair implements Serializable {
 
     private final RubyString lhs;
     private final String jlhs;
+    private final transient FieldReference sourceReference;
     private final boolean empty;
     private final Dissector dissector;
 
     private DissectPair(final RubyString left, final String val) {
         lhs = left;
         jlhs = lhs.toString();
+        sourceReference = sourceReference(jlhs);
         empty = val.isEmpty();
         if (empty) {
             dissector = new Dissector();
         } else {
-            dissector = Dissector.create(val);
+            dissector = DissectorCache.get(val);
+        }
+    }
+
+    // the source is resolved when the filter is registered, so an invalid one fails the mapping instead of each event
+    private static FieldReference sourceReference(final String source) {
+        try {
+            return FieldReference.from(source);
+        } catch (final FieldReference.IllegalSyntaxException e) {
+            throw new InvalidFieldException(String.format("Source is not a valid field reference: %s", source), e);
         }
     }
 
+    // the same source with a mapping where the given fields are typed, see Dissector.withTypes
+    DissectPair withTypes(final Map<String, String> types) {
+        return new DissectPair(lhs, Dissector.withTypes(dissector.getMapping(), types));
+    }
+
     RubyString key() {
         return lhs;
     }
@@ -55,6 +81,10 @@ final class DissectPair implements Serializable {
         return jlhs;
     }
 
+    FieldReference sourceReference() {
+        return sourceReference;
+    }
+
     Dissector dissector() {
         return dissector;
     }
@@ -1,45 +1,93 @@
 package org.logstash.dissect;
 
+import org.logstash.ConvertedMap;
 import org.logstash.Event;
+import org.logstash.FieldReference;
+import org.logstash.dissect.fields.AppendField;
 import org.logstash.dissect.fields.Field;
 import org.logstash.dissect.fields.FieldComparator;
 import org.logstash.dissect.fields.FieldFactory;
+import org.logstash.dissect.fields.IndirectField;
+import org.logstash.dissect.fields.InvalidFieldException;
+import org.logstash.dissect.fields.NormalField;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+/*
+    A compiled mapping. All of its state is final and is built before the constructor returns, so one instance
+    can be shared by any number of threads. The fields, delimiters and the MatchPlan are immutable, the only
+    state that changes is the switch from the interpreter to the specialized matcher, published through a volatile.
+ */
 public class Dissector {
     private static final Pattern DELIMITER_FIELD_PATTERN = Pattern.compile("(.*?)%\\{([^}]*?)}", Pattern.DOTALL);
     private static final Pattern FINAL_DELIMITER_PATTERN = Pattern.compile("[^}]+$");
-    private final List<Field> fields;
-    // skip fields are not savable, so will be excluded from the saveableFields list
-    // saveable fields are field + values that need to be set on the Event or HashMap
-    private final List<Field> saveableFields;
-    private int offsetOfFirstField;
-    private String mapping;
-
-    public  Dissector() {
-        offsetOfFirstField = 0;
-        fields = new ArrayList<>(10);
-        saveableFields = new ArrayList<>(10);
-        mapping = "";
+    // -Dorg.logstash.dissect.singlePassMinFields=n scans mappings of at least n fields in one pass over the source,
+    // it is off by default as the per-field locators were faster on every mapping that was measured
+    static final String SINGLE_PASS_PROPERTY = "org.logstash.dissect.singlePassMinFields";
+    static final int NEVER_SINGLE_PASS = -1;
+    static final int SINGLE_PASS_MIN_FIELDS = Integer.getInteger(SINGLE_PASS_PROPERTY, NEVER_SINGLE_PASS);
+    // -Dorg.logstash.dissect.specializeAfter=n sets the number of dissections before a mapping gets a specialized matcher
+    static final String SPECIALIZE_PROPERTY = "org.logstash.dissect.specializeAfter";
+    private static final int SPECIALIZE_AFTER = Integer.getInteger(SPECIALIZE_PROPERTY, 10_000);
+    private static final int NEVER_SPECIALIZE = -1;
+    private static final MatchPlan EMPTY_PLAN = new MatchPlan(new Field[0], new Field[0], new boolean[0], null, MatchPlan.NO_SPANNING_FIELD, 0);
+
+    private final String mapping;
+    private final MatchPlan plan;
+    private final ThreadLocal<Scratch> scratch;
+    // every mapping is interpreted at first, after specializeAfter dissections it gets its own matcher class
+    private final CompiledMapping interpreter;
+    private final int specializeAfter;
+    private volatile CompiledMapping matcher;
+    // a count that may lose increments when threads race, it only has to pass the threshold once
+    private int invocations;
+
+    public Dissector() {
+        this("", EMPTY_PLAN, NEVER_SPECIALIZE);
+    }
+
+    private Dissector(final String mapping, final MatchPlan plan, final int specializeAfter) {
+        this.mapping = mapping;
+        this.plan = plan;
+        this.specializeAfter = specializeAfter;
+        final int fieldCount = plan.fields().length;
+        scratch = ThreadLocal.withInitial(() -> new Scratch(fieldCount));
+        interpreter = new MappingMatcher(plan);
+        matcher = interpreter;
     }
 
     public static Dissector create(final String mapping) {
-        final Dissector dissector = new Dissector();
-        dissector.handleMapping(mapping);
-        return dissector;
+        return create(mapping, SINGLE_PASS_MIN_FIELDS);
+    }
+
+    static Dissector create(final String mapping, final int singlePassMinFields) {
+        return create(mapping, singlePassMinFields, SPECIALIZE_AFTER);
+    }
+
+    static Dissector create(final String mapping, final int singlePassMinFields, final int specializeAfter) {
+        return new Dissector(mapping, compile(mapping, singlePassMinFields), specializeAfter);
     }
 
     public final String getMapping() {
         return mapping;
     }
 
-    private void handleMapping(final String mapping) {
-        this.mapping = mapping;
+    boolean isSinglePass() {
+        return plan.scanner() != null;
+    }
+
+    boolean isSpecialized() {
+        return matcher.getClass().isHidden();
+    }
+
+    private static MatchPlan compile(final String mapping, final int singlePassMinFields) {
         if (mapping.isEmpty()) {
             throw new IllegalArgumentException("The mapping string cannot be empty");
         }
@@ -48,10 +96,31 @@ public class Dissector {
         // then we create immutable field instances.
         final List<FieldDelimiterHolder> list = createFieldAssociations(mapping);
         // now create the fields for real
-        createFieldList(list);
+        final List<Field> fields = new ArrayList<>(list.size());
+        int spanningIndex = MatchPlan.NO_SPANNING_FIELD;
+        for (final FieldDelimiterHolder holder : list) {
+            final Field field = FieldFactory.create(holder.getId(), holder.getName(), holder.getPrevious(), holder.getNext());
+            if (field.spanning()) {
+                if (spanningIndex != MatchPlan.NO_SPANNING_FIELD) {
+                    throw new InvalidFieldException("Only one field can be spanning in the mapping: " + mapping);
+                }
+                spanningIndex = fields.size();
+            }
+            fields.add(field);
+        }
+        final Field[] fieldArray = fields.toArray(new Field[0]);
+        final Field[] saveableArray = createSaveableFields(fieldArray);
+        // a leading delimiter must be at the very start of the source
+        final Delimiter leading = fieldArray[0].previousDelimiter();
+        final int firstFieldOffset = leading == null ? 0 : leading.size();
+        final boolean singlePass = singlePassMinFields >= 0 && fields.size() >= singlePassMinFields;
+        final SinglePassScanner scanner = singlePass && SinglePassScanner.canScan(fields)
+                ? SinglePassScanner.create(fields)
+                : null;
+        return new MatchPlan(fieldArray, saveableArray, skipsRepeatsBefore(fieldArray), scanner, spanningIndex, firstFieldOffset);
     }
 
-    private List<FieldDelimiterHolder> createFieldAssociations(final String mapping) {
+    private static List<FieldDelimiterHolder> createFieldAssociations(final String mapping) {
         final List<FieldDelimiterHolder> list = new ArrayList<>(10);
         // setup a regex pattern matcher for the dissection mapping string
         final Matcher matcher = DELIMITER_FIELD_PATTERN.matcher(mapping);
@@ -62,11 +131,7 @@ public class Dissector {
             final Delimiter delimiter = Delimiter.create(matcher.group(1));
             // for this field point its 'previous' delimiter to this one
             final FieldDelimiterHolder temp = new FieldDelimiterHolder(fieldIndex, matcher.group(2), delimiter);
-            if (list.isEmpty()) {
-                if (delimiter.size() > 0) {
-                    offsetOfFirstField = delimiter.size();
-                }
-            } else {
+            if (!list.isEmpty()) {
                 // for the previous field point its 'next' delimiter to this one
                 list.get(fieldIndex - 1).setNext(delimiter);
                 // each field points to the delimiters that were before and after it
@@ -88,186 +153,333 @@ public class Dissector {
         return list;
     }
 
-    private void createFieldList(final Iterable<FieldDelimiterHolder> list) {
-        // here we take the list of what was found and build real fields and add them to the lists
-        for (final FieldDelimiterHolder holder : list) {
-            final Field field = FieldFactory.create(holder.getId(), holder.getName(), holder.getPrevious(), holder.getNext());
-            fields.add(field);
+    private static Field[] createSaveableFields(final Field[] fields) {
+        // the saveable fields are the fields minus the Skip fields
+        // sorted so AppendFields are last
+        final List<Field> saveableFields = new ArrayList<>(fields.length);
+        for (final Field field : fields) {
             if (field.saveable()) {
                 saveableFields.add(field);
             }
         }
-
-        // the saveableFields List is fields List minus the Skip fields
-        // sorted so AppendFields are last
         saveableFields.sort(new FieldComparator());
-    }
-
-    public final DissectResult dissect(final byte[] source, final Map<String, Object> keyValueMap) {
-        final ValueRef[] valueRefs = createValueRefArray();
-        final DissectResult result = new DissectResult();
-        if (fields.isEmpty() || source == null || source.length == 0) {
-            result.bail();
-        } else {
-            // keyValueMap is a Map we get given - its is what we are updating with the keys and found values
-            // here we take the bytes (from a Ruby String), use the fields list to find each delimiter and
-            // record the indexes where we find each fields value in the valueRefs
-            // we use the integer id of the Field as the index to store the ValueRef in.
-            // note: we have not extracted any strings from the source bytes yet.
-            dissectValues(source, valueRefs, result);
-            final ValueResolver resolver = new ValueResolver(source, valueRefs);
-            if (result.matched()) {
-                // fields were found
-                // fill the keyValueMap, iterate through the sorted saveable fields only
-                for (final Field field : saveableFields) {
-                    // allow the field to append its key and
-                    // use the resolver to extract the value from the source bytes
-                    field.append(keyValueMap, resolver);
+        // the first append field of each name joins all the fragments of that name in one step
+        final Map<String, List<AppendField>> groups = new LinkedHashMap<>();
+        final List<Field> grouped = new ArrayList<>(saveableFields.size());
+        for (final Field field : saveableFields) {
+            if (field instanceof AppendField) {
+                final List<AppendField> group = groups.get(field.name());
+                if (group != null) {
+                    group.add((AppendField) field);
+                    continue;
                 }
+                groups.put(field.name(), new ArrayList<>(Collections.singletonList((AppendField) field)));
+            }
+            grouped.add(field);
+        }
+        final Field[] saveable = new Field[grouped.size()];
+        for (int idx = 0; idx < saveable.length; idx++) {
+            final Field field = grouped.get(idx);
+            if (field instanceof AppendField) {
+                saveable[idx] = ((AppendField) field).withFragments(groups.get(field.name()));
+            } else if (field instanceof IndirectField) {
+                // the key of an indirect field is looked up by its field id, not by name per event
+                saveable[idx] = ((IndirectField) field).withKeyFrom(fields);
+            } else {
+                saveable[idx] = field;
             }
         }
-        return result;
+        return saveable;
     }
 
-    public final DissectResult dissect(final byte[] source, final Event event) {
-        final ValueRef[] valueRefs = createValueRefArray();
-        final DissectResult result = new DissectResult();
-        if (fields.isEmpty() || source.length == 0) {
-            result.bail();
-        } else {
-            dissectValues(source, valueRefs, result);
-            final ValueResolver resolver = new ValueResolver(source, valueRefs);
-            if (result.matched()) {
-                for (final Field field : saveableFields) {
-                    field.append(event, resolver);
-                }
+    private static boolean[] skipsRepeatsBefore(final Field[] fields) {
+        // a '->' field or a run of class bytes skips the repeats of the delimiter after the value
+        final boolean[] skips = new boolean[fields.length];
+        for (int idx = 0; idx < fields.length; idx++) {
+            final Delimiter previous = fields[idx].previousDelimiter();
+            skips[idx] = previous != null && (previous.isRun() || idx > 0 && fields[idx - 1].greedy());
+        }
+        return skips;
+    }
+
+    public final boolean dissect(final byte[] source, final Map<String, Object> keyValueMap) {
+        if (source == null) {
+            return false;
+        }
+        return dissect(source, 0, source.length, keyValueMap);
+    }
+
+    /**
+     * Dissect the text held in part of a byte array, e.g. the backing bytes of a Ruby String.
+     * The bytes are not copied and nothing outside of begin and begin + length is read.
+     *
+     * @param unsafeBytes a possibly shared array that holds the text
+     * @param begin       the position of the first byte of the text
+     * @param length      the number of bytes in the text
+     * @param keyValueMap the map that the found keys and values are put into
+     * @return true if all the fields were found
+     */
+    public final boolean dissect(final byte[] unsafeBytes, final int begin, final int length, final Map<String, Object> keyValueMap) {
+        if (plan.fields().length == 0 || length == 0) {
+            return false;
+        }
+        // keyValueMap is a Map we get given - its is what we are updating with the keys and found values
+        // here we take the bytes (from a Ruby String), use the fields list to find each delimiter and
+        // record the offset and length of each fields value in the per thread scratch
+        // we use the integer id of the Field as the index of its offsets.
+        // note: we have not extracted any strings from the source bytes yet.
+        final CompiledMapping matcher = matcher();
+        final Scratch scratch = this.scratch.get();
+        final ValueResolver resolver = scratch.resolver;
+        final boolean found = matcher.match(unsafeBytes, begin, begin + length, scratch.position, resolver);
+        scratch.position.release();
+        if (!found) {
+            return false;
+        }
+        // the source is only checked for non ASCII bytes once all fields were found
+        resolver.reset(unsafeBytes, begin, begin + length);
+        try {
+            // fields were found, fill the keyValueMap
+            matcher.save(keyValueMap, resolver);
+            return true;
+        } finally {
+            // do not keep the source alive until the next call on this thread
+            resolver.release();
+        }
+    }
+
+    public final boolean dissect(final byte[] source, final Event event) {
+        return dissect(source, 0, source.length, event);
+    }
+
+    /**
+     * Dissect the text held in part of a byte array, e.g. the backing bytes of a Ruby String.
+     * The bytes are not copied and nothing outside of begin and begin + length is read.
+     *
+     * @param unsafeBytes a possibly shared array that holds the text
+     * @param begin       the position of the first byte of the text
+     * @param length      the number of bytes in the text
+     * @param event       the event that the found keys and values are set on
+     * @return true if all the fields were found
+     */
+    public final boolean dissect(final byte[] unsafeBytes, final int begin, final int length, final Event event) {
+        if (plan.fields().length == 0 || length == 0) {
+            return false;
+        }
+        final CompiledMapping matcher = matcher();
+        final Scratch scratch = this.scratch.get();
+        final ValueResolver resolver = scratch.resolver;
+        final boolean found = matcher.match(unsafeBytes, begin, begin + length, scratch.position, resolver);
+        scratch.position.release();
+        if (!found) {
+            return false;
+        }
+        // the source is only checked for non ASCII bytes once all fields were found
+        resolver.reset(unsafeBytes, begin, begin + length);
+        try {
+            matcher.save(event, resolver);
+            return true;
+        } finally {
+            resolver.release();
+        }
+    }
+
+    /**
+     * Dissect the text held in part of a byte array into the map that is set as the target object of an event.
+     * The values are Ruby Strings and the append and indirect fields work on the keys already in the target.
+     *
+     * @param unsafeBytes a possibly shared array that holds the text
+     * @param begin       the position of the first byte of the text
+     * @param length      the number of bytes in the text
+     * @param target      the target object that the found keys and values are put into
+     * @return true if all the fields were found
+     */
+    public final boolean dissect(final byte[] unsafeBytes, final int begin, final int length, final ConvertedMap target) {
+        return dissect(unsafeBytes, begin, length, target, null);
+    }
+
+    // as above, the event that the target is set on is tagged for the typed values that are not numbers
+    final boolean dissect(final byte[] unsafeBytes, final int begin, final int length, final ConvertedMap target, final Event tagged) {
+        if (plan.fields().length == 0 || length == 0) {
+            return false;
+        }
+        final CompiledMapping matcher = matcher();
+        final Scratch scratch = this.scratch.get();
+        final ValueResolver resolver = scratch.resolver;
+        final boolean found = matcher.match(unsafeBytes, begin, begin + length, scratch.position, resolver);
+        scratch.position.release();
+        if (!found) {
+            return false;
+        }
+        resolver.reset(unsafeBytes, begin, begin + length);
+        try {
+            matcher.saveTarget(target, resolver);
+            if (tagged != null) {
+                resolver.tagFailedConversions(tagged);
             }
+            return true;
+        } finally {
+            resolver.release();
+        }
+    }
+
+    /*
+        The two halves of a dissection, for a caller that finds the values of many sources on other threads
+        and then sets them on its events on one thread. The values found are kept in a resolver of their own,
+        which holds on to the source until it is saved.
+     */
+
+    // null when not all the fields were found, this does not touch any event
+    final ValueResolver match(final byte[] unsafeBytes, final int begin, final int length) {
+        if (plan.fields().length == 0 || length == 0) {
+            return null;
+        }
+        final Position position = scratch.get().position;
+        final ValueResolver resolver = new ValueResolver(plan.fields().length);
+        final boolean found = matcher().match(unsafeBytes, begin, begin + length, position, resolver);
+        position.release();
+        if (!found) {
+            return null;
         }
-        return result;
+        resolver.reset(unsafeBytes, begin, begin + length);
+        return resolver;
     }
 
-    private ValueRef[] createValueRefArray() {
-        final ValueRef[] array = new ValueRef[fields.size()];
-        for(final Field field : fields) {
-            array[field.id()] = new ValueRef(field.name());
+    final void save(final ValueResolver found, final Event event) {
+        try {
+            matcher.save(event, found);
+        } finally {
+            found.release();
         }
-        return array;
     }
 
-    private void dissectValues(final byte[] source, final ValueRef[] fieldValueRefs, final DissectResult result) {
-        final Dissector.Position position = new Dissector.Position(source, offsetOfFirstField);
-        final int numFields = fields.size();
-        final int lastFieldIndex = numFields - 1;
-        for (int idx = 0; idx < lastFieldIndex; idx++) {
-            final Field field = fields.get(idx);
-            fieldValueRefs[field.id()].clear();
-            // each delimiter is given a strategy that uses the indexOf method
-            // to search in the source bytes for itself starting from
-            // where we think next field might begin (left)
-            position.moveBeyondDelimiter(field.previousDelimiter(), result);
-            if (result.notMatched()) {
-                break;
+    final void save(final ValueResolver found, final ConvertedMap target, final Event tagged) {
+        try {
+            matcher.saveTarget(target, found);
+            found.tagFailedConversions(tagged);
+        } finally {
+            found.release();
+        }
+    }
+
+    /**
+     * Whether a normal or append field of this mapping sets a field. The keys of indirect fields are only known per event.
+     *
+     * @param reference the field
+     * @param target    the target object of the dissected fields, null when they are at the top level of the event
+     * @return true when this mapping sets the field when it matches
+     */
+    final boolean produces(final FieldReference reference, final FieldReference target) {
+        for (final Field field : plan.saveable()) {
+            if (field instanceof IndirectField) {
+                continue;
             }
-            position.moveNext(field.nextDelimiter(), result);
-            if (result.notMatched()) {
-                break;
+            if (target == null ? sameField(FieldReference.from(field.name()), reference) : isTargetKey(field, reference, target)) {
+                return true;
             }
-            fieldValueRefs[field.id()].update(position.start, position.length);
         }
-        if (result.matched()) {
-            final Field lastField = fields.get(lastFieldIndex);
-            fieldValueRefs[lastField.id()].clear();
-            position.moveBeyondDelimiter(lastField.previousDelimiter(), result);
-            position.repositionToEnd();
-            fieldValueRefs[lastField.id()].update(position.start, position.length);
+        return false;
+    }
+
+    final boolean hasIndirectFields() {
+        for (final Field field : plan.saveable()) {
+            if (field instanceof IndirectField) {
+                return true;
+            }
         }
+        return false;
     }
 
-    private static final class Position {
-        int pos;
-        final int firstFieldOffset;
-        int left;
-        final byte[] source;
-        int start;
-        int length;
-
-        Position(final byte[] sourceBytes, final int offsetFirstField) {
-            source = sourceBytes;
-            firstFieldOffset = offsetFirstField;
-            left = 0;
-            pos = 0;
-            start = 0;
-            length = 0;
+    // true when the only field of this name that is saved is a normal field without a datatype
+    final boolean canTypeField(final String name) {
+        int count = 0;
+        boolean untypedNormal = false;
+        for (final Field field : plan.saveable()) {
+            if (field.name().equals(name)) {
+                count++;
+                untypedNormal = field instanceof NormalField && ((NormalField) field).datatype() == null;
+            }
         }
+        return count == 1 && untypedNormal;
+    }
 
-        void setStart() {
-            start = left;
+    /**
+     * The mapping with a datatype suffix added to normal fields, e.g. `%{bytes}` becomes `%{bytes:int}`.
+     *
+     * @param mapping the dissect mapping
+     * @param types   the datatype of each field name
+     * @return the mapping text with the typed fields
+     */
+    static String withTypes(final String mapping, final Map<String, String> types) {
+        final StringBuilder typed = new StringBuilder(mapping.length() + types.size() * 8);
+        final Matcher matcher = DELIMITER_FIELD_PATTERN.matcher(mapping);
+        int copied = 0;
+        while (matcher.find()) {
+            final String field = matcher.group(2);
+            typed.append(mapping, copied, matcher.end(2));
+            copied = matcher.end(2);
+            if (field.isEmpty() || "?+&".indexOf(field.charAt(0)) >= 0) {
+                continue;
+            }
+            final String type = types.get(Field.extractNameSuffix(field)[0]);
+            if (type != null) {
+                typed.append(':').append(type);
+            }
         }
+        return typed.append(mapping, copied, mapping.length()).toString();
+    }
 
-        void setLength() {
-            length = pos - left;
+    static boolean sameField(final FieldReference field, final FieldReference reference) {
+        return field.type() == reference.type() && field.getKey().equals(reference.getKey())
+                && Arrays.equals(field.getPath(), reference.getPath());
+    }
+
+    private static boolean isTargetKey(final Field field, final FieldReference reference, final FieldReference target) {
+        final String[] path = reference.getPath();
+        final String[] targetPath = target.getPath();
+        return reference.type() == target.type() && reference.getKey().equals(field.targetKey())
+                && path.length == targetPath.length + 1 && path[targetPath.length].equals(target.getKey())
+                && Arrays.equals(path, 0, targetPath.length, targetPath, 0, targetPath.length);
+    }
+
+    // the saveable fields become keys of the target object, they cannot be nested field references
+    final void checkTargetKeys() {
+        for (final Field field : plan.saveable()) {
+            if (field.targetKey() == null) {
+                throw new InvalidFieldException(String.format("Field name cannot be a nested field reference when a target is set: %s", field.name()));
+            }
         }
+    }
 
-        void repositionToEnd() {
-            pos = source.length;
-            setLength();
+    private CompiledMapping matcher() {
+        final CompiledMapping current = matcher;
+        // the count is not exact when threads race, it only has to pass the threshold once
+        if (current == interpreter && specializeAfter >= 0 && invocations++ >= specializeAfter) {
+            return specialize();
         }
+        return current;
+    }
 
-        void moveNext(final Delimiter next, final DissectResult result) {
-            length = 0;
-            pos = next.indexOf(source, left);
-            if (pos == -1) {
-                // the next delimiter was never found at all, bail out
-                result.bail();
-            } else if (pos > 0) {
-                // pos is now at the next delimiter, found the end of the field
-                setLength();
-                // set left to be the end of the delimiter & start index of the next field
-                left = pos + next.size();
+    private synchronized CompiledMapping specialize() {
+        if (matcher == interpreter) {
+            try {
+                matcher = MatcherCompiler.compile(plan);
+            } catch (final ReflectiveOperationException | RuntimeException | LinkageError e) {
+                // keep interpreting this mapping with an interpreter of its own, so that it is not tried again
+                matcher = new MappingMatcher(plan);
             }
         }
+        return matcher;
+    }
 
-        void moveBeyondDelimiter(final Delimiter prev, final DissectResult result) {
-            // we use this method to move past one or more consecutive delimiters if greedy
-            if (prev == null) {
-                // we are at the start
-                setStart();
-            } else if (prev.isGreedy()) {
-                // greedy consume, used '->' suffix
-                while (true) {
-                    pos = prev.indexOf(source, left);
-                    if (pos == left) {
-                        // we found another delimiter move to the end of the delimiter
-                        left = pos + prev.size();
-                    } else if (pos == -1) {
-                        setStart();
-                        break;
-                    } else {
-                        // we found the start of value
-                        setStart();
-                        break;
-                    }
-                }
-            } else {
-                // not greedy
-                // need to handle the starting delimiter case
-                if (left == 0 && firstFieldOffset > 0) {
-                    // there is a first delimiter and we have not yet found it and skipped over it.
-                    pos = prev.indexOf(source, left);
-                    // first delimiter must appear just before the start of the value.
-                    if (pos == 0) {
-                        left = pos + prev.size();
-                    } else {
-                        // if -1, no first delimiter was found at all or
-                        // > 0, the delimiter was found deeper in the value
-                        // either way we bail by setting start to the end
-                        result.bail();
-                    }
-                }
-                // we move the start to be where the left is now.
-                // left is at the start of the field (after this delimiter)
-                setStart();
-            }
+    // the per thread state of a dissection, reused so that only the output values are allocated
+    private static final class Scratch {
+        final Position position;
+        final ValueResolver resolver;
+
+        Scratch(final int fieldCount) {
+            position = new Position();
+            resolver = new ValueResolver(fieldCount);
         }
     }
 }
@@ -0,0 +1,86 @@
+package org.logstash.dissect;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+    A process wide cache of compiled mappings, keyed by the mapping string.
+    A compiled Dissector is immutable and thread safe so all the pipelines that use the same mapping can share one.
+    The cache only holds weak references: a compiled mapping stays cached while some pipeline still uses it,
+    a reloaded pipeline finds the instance of its previous run, and the mappings that no pipeline uses any more are dropped.
+ */
+public final class DissectorCache {
+    private static final ConcurrentMap<String, CachedDissector> CACHE = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<Dissector> CLEARED = new ReferenceQueue<>();
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+
+    private DissectorCache() {
+    }
+
+    /**
+     * The compiled form of a mapping, compiled only when no cached instance is in use.
+     *
+     * @param mapping the dissect mapping
+     * @return a shared compiled Dissector
+     * @throws org.logstash.dissect.fields.InvalidFieldException when the mapping is invalid, nothing is cached
+     */
+    public static Dissector get(final String mapping) {
+        expungeClearedEntries();
+        final Dissector[] result = new Dissector[1];
+        CACHE.compute(mapping, (key, entry) -> {
+            final Dissector cached = entry == null ? null : entry.get();
+            if (cached != null) {
+                HITS.increment();
+                result[0] = cached;
+                return entry;
+            }
+            MISSES.increment();
+            result[0] = Dissector.create(key);
+            return new CachedDissector(key, result[0], CLEARED);
+        });
+        return result[0];
+    }
+
+    // the counts are since the start of the process, a miss is counted even when the mapping is invalid
+    public static long hits() {
+        return HITS.sum();
+    }
+
+    public static long misses() {
+        return MISSES.sum();
+    }
+
+    // the number of cached mappings, including those not yet dropped after their last user went away
+    public static int size() {
+        return CACHE.size();
+    }
+
+    // clears the entry of a mapping as the collector does when its last user went away, for the tests
+    static void clear(final String mapping) {
+        final CachedDissector entry = CACHE.get(mapping);
+        if (entry != null) {
+            entry.enqueue();
+        }
+    }
+
+    private static void expungeClearedEntries() {
+        CachedDissector cleared;
+        while ((cleared = (CachedDissector) CLEARED.poll()) != null) {
+            // a newer entry for the same mapping is kept
+            CACHE.remove(cleared.mapping, cleared);
+        }
+    }
+
+    private static final class CachedDissector extends WeakReference<Dissector> {
+        private final String mapping;
+
+        CachedDissector(final String mapping, final Dissector dissector, final ReferenceQueue<Dissector> queue) {
+            super(dissector, queue);
+            this.mapping = mapping;
+        }
+    }
+}
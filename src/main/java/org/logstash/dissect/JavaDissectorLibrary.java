@@ -5,6 +5,7 @@ import org.apache.logging.log4j.Logger;
 import org.jruby.Ruby;
 import org.jruby.RubyArray;
 import org.jruby.RubyClass;
+import org.jruby.RubyFixnum;
 import org.jruby.RubyHash;
 import org.jruby.RubyModule;
 import org.jruby.RubyObject;
@@ -15,13 +16,24 @@ import org.jruby.internal.runtime.methods.DynamicMethod;
 import org.jruby.runtime.ThreadContext;
 import org.jruby.runtime.builtin.IRubyObject;
 import org.jruby.runtime.load.Library;
+import org.jruby.util.ByteList;
+import org.logstash.ConvertedMap;
 import org.logstash.Event;
+import org.logstash.FieldReference;
 import org.logstash.dissect.fields.InvalidFieldException;
 import org.logstash.ext.JrubyEventExtLibrary;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 public class JavaDissectorLibrary implements Library {
 
@@ -46,6 +58,54 @@ public class JavaDissectorLibrary implements Library {
         }
     }
 
+    /*
+        Finds the values of one mapping for a range of a batch on the threads of a pool, splitting the range
+        while it is larger than a chunk. Only the source bytes are read, the events are not touched.
+     */
+    private static final class MatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 3591377421853106282L;
+
+        private final transient Dissector dissector;
+        private final transient ByteList[] sources;
+        private final transient ValueResolver[] found;
+        private final transient Exception[] errors;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        MatchTask(final Dissector dissector, final ByteList[] sources, final ValueResolver[] found, final Exception[] errors,
+                  final int from, final int to, final int chunk) {
+            this.dissector = dissector;
+            this.sources = sources;
+            this.found = found;
+            this.errors = errors;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunk) {
+                for (int idx = from; idx < to; idx++) {
+                    final ByteList bytes = sources[idx];
+                    if (bytes == null) {
+                        continue;
+                    }
+                    try {
+                        found[idx] = dissector.match(bytes.unsafeBytes(), bytes.begin(), bytes.realSize());
+                    } catch (final RuntimeException ex) {
+                        errors[idx] = ex;
+                    }
+                }
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new MatchTask(dissector, sources, found, errors, from, middle, chunk),
+                    new MatchTask(dissector, sources, found, errors, middle, to, chunk));
+        }
+    }
+
     public static class RubyDissect extends RubyObject {
         private static final long serialVersionUID = -4417443116118527316L;
 
@@ -54,6 +114,15 @@ public class JavaDissectorLibrary implements Library {
         static final String INCREMENT_FAILURES_METRIC = "increment_failures_metric";
         static final String TAG_ON_FAILURE = "tag_on_failure";
         static final String[] EMPTY_STRINGS_ARRAY = new String[0];
+        // -Dorg.logstash.dissect.parallelMinBatch=n sets the smallest batch that is matched in parallel
+        static final String PARALLEL_MIN_BATCH_PROPERTY = "org.logstash.dissect.parallelMinBatch";
+        private static final int PARALLEL_MIN_BATCH = Integer.getInteger(PARALLEL_MIN_BATCH_PROPERTY, 256);
+        private static final int MIN_CHUNK = 16;
+        // -Dorg.logstash.dissect.logSamples=n and -Dorg.logstash.dissect.logInterval=seconds limit the events logged
+        static final String LOG_SAMPLES_PROPERTY = "org.logstash.dissect.logSamples";
+        static final String LOG_INTERVAL_PROPERTY = "org.logstash.dissect.logInterval";
+        private static final int LOG_SAMPLES = Integer.getInteger(LOG_SAMPLES_PROPERTY, 10);
+        private static final int LOG_INTERVAL = Integer.getInteger(LOG_INTERVAL_PROPERTY, 60);
 
         private DissectPair[] dissectors;
         private ConvertPair[] conversions;
@@ -61,10 +130,26 @@ public class JavaDissectorLibrary implements Library {
         private RubyClass pluginMetaClass;
         private boolean runMatched;
         private String[] failureTags;
+        // null when the fields are set at the top level of the event
+        private FieldReference targetReference;
+        // the plugin callbacks, bound to this plugin instance when it is initialized
+        private DynamicMethod filterMatchedMethod;
+        private DynamicMethod incrementMatchesMethod;
+        private DynamicMethod incrementFailuresMethod;
+        // counted per event in Java and added to the plugin metrics once per call or batch
+        private final LongAdder matches = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        // the threads that match large batches, null when a batch is dissected on the worker thread only
+        private ForkJoinPool pool;
+        // the failures of each mapping by reason, the events that fail are only logged as a sample
+        private LongAdder[][] failureCounts;
+        private final LogSampler failureSampler = new LogSampler(LOG_SAMPLES, LOG_INTERVAL, TimeUnit.SECONDS);
+        private final LogSampler debugSampler = new LogSampler(LOG_SAMPLES, LOG_INTERVAL, TimeUnit.SECONDS);
 
         public RubyDissect(final Ruby runtime, final RubyClass klass) {
             super(runtime, klass);
             dissectors = DissectPair.EMPTY_ARRAY;
+            failureCounts = new LongAdder[0][];
             conversions = ConvertPair.EMPTY_ARRAY;
             runMatched = false;
             failureTags = EMPTY_STRINGS_ARRAY;
@@ -87,18 +172,38 @@ public class JavaDissectorLibrary implements Library {
             return hash;
         }
 
-        // def initialize(mapping, plugin, convert?, decorate?)
-        @JRubyMethod(name = "initialize", required = 2, optional = 2)
+        // def self.cache_stats, the compiled mapping cache shared by all pipelines of the process
+        @JRubyMethod(name = "cache_stats", meta = true)
+        public static IRubyObject cacheStats(final ThreadContext ctx, final IRubyObject self) {
+            final RubyHash stats = RubyHash.newSmallHash(ctx.runtime);
+            stats.put("hits", DissectorCache.hits());
+            stats.put("misses", DissectorCache.misses());
+            stats.put("size", DissectorCache.size());
+            return stats;
+        }
+
+        // def initialize(mapping, plugin, convert?, decorate?, target?, parallelism?)
+        @JRubyMethod(name = "initialize", required = 2, optional = 4)
         public IRubyObject rubyInitialize(final ThreadContext ctx, final IRubyObject[] args) {
             final Ruby ruby = ctx.runtime;
             try {
-                dissectors = DissectPair.createArrayFromHash((RubyHash) args[0]);
+                if (args.length > 4 && !args[4].isNil()) {
+                    targetReference = createTargetReference(args[4].asJavaString());
+                }
+                dissectors = DissectPair.createArrayFromHash((RubyHash) args[0], targetReference != null);
+                conversions = ConvertPair.createArrayFromHash((RubyHash) args[2], dissectors, targetReference);
             } catch (final InvalidFieldException e) {
                 throw JavaDissectorLibrary.NativeExceptions.newFieldFormatError(ruby, e);
             }
+            failureCounts = new LongAdder[dissectors.length][Outcome.values().length];
+            for (final LongAdder[] counts : failureCounts) {
+                Arrays.setAll(counts, reason -> new LongAdder());
+            }
             plugin = (RubyObject) args[1];
             pluginMetaClass = plugin.getMetaClass();
-            conversions = ConvertPair.createArrayFromHash((RubyHash) args[2]);
+            filterMatchedMethod = pluginMetaClass.searchMethod(FILTER_MATCHED);
+            incrementMatchesMethod = pluginMetaClass.searchMethod(INCREMENT_MATCHES_METRIC);
+            incrementFailuresMethod = pluginMetaClass.searchMethod(INCREMENT_FAILURES_METRIC);
             for (final ConvertPair convertPair : conversions) {
                 if (convertPair.converter().isInvalid()) {
                     final RubyClass klass = ruby.getModule("LogStash").getClass("ConvertDatatypeFormatError");
@@ -106,131 +211,509 @@ public class JavaDissectorLibrary implements Library {
                     throw new RaiseException(ruby, klass, errorMessage, true);
                 }
             }
+            if (targetReference == null) {
+                typeConvertedFields();
+            }
             runMatched = args[3] == null || args[3].isTrue();
             failureTags = fetchFailureTags(ctx);
+            if (args.length > 5 && !args[5].isNil() && args[5].convertToInteger().getLongValue() > 1) {
+                pool = createPool((int) args[5].convertToInteger().getLongValue());
+            }
+            return ctx.nil;
+        }
+
+        /*
+            A conversion of a field that one mapping sets with a normal field is compiled into that mapping as a
+            typed field, the value is then parsed from the source bytes as it is saved and is never built as text.
+            Conversions that could see a different value than the one dissected are kept: those of fields set
+            by more than one mapping or used as the source of a mapping, and all of them when a mapping has
+            indirect fields, as their keys are only known per event.
+         */
+        private void typeConvertedFields() {
+            for (final DissectPair dissectPair : dissectors) {
+                if (!dissectPair.isEmpty() && dissectPair.dissector().hasIndirectFields()) {
+                    return;
+                }
+            }
+            final Map<Integer, Map<String, String>> typesByPair = new HashMap<>();
+            final List<ConvertPair> kept = new ArrayList<>(conversions.length);
+            for (final ConvertPair convertPair : conversions) {
+                final int[] producers = convertPair.producers();
+                if (producers.length == 1 && !isSource(convertPair.reference())
+                        && dissectors[producers[0]].dissector().canTypeField(convertPair.src())) {
+                    typesByPair.computeIfAbsent(producers[0], pair -> new HashMap<>()).put(convertPair.src(), convertPair.type());
+                } else {
+                    kept.add(convertPair);
+                }
+            }
+            typesByPair.forEach((pair, types) -> dissectors[pair] = dissectors[pair].withTypes(types));
+            conversions = kept.toArray(ConvertPair.EMPTY_ARRAY);
+        }
+
+        private boolean isSource(final FieldReference reference) {
+            for (final DissectPair dissectPair : dissectors) {
+                if (Dissector.sameField(dissectPair.sourceReference(), reference)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static ForkJoinPool createPool(final int parallelism) {
+            return new ForkJoinPool(parallelism, forkJoinPool -> {
+                final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                thread.setName("dissect-match-" + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+        }
+
+        // def close, stops the threads that match large batches
+        @JRubyMethod(name = "close")
+        public IRubyObject close(final ThreadContext ctx) {
+            if (pool != null) {
+                pool.shutdown();
+            }
             return ctx.nil;
         }
 
+        private static FieldReference createTargetReference(final String target) {
+            try {
+                return FieldReference.from(target);
+            } catch (final RuntimeException e) {
+                throw new InvalidFieldException(String.format("Target is not a valid field reference: %s", target));
+            }
+        }
+
         // def dissect(event, self)
         @JRubyMethod(name = "dissect", required = 1)
         public final IRubyObject dissect(final ThreadContext ctx, final IRubyObject arg1) {
-            final JrubyEventExtLibrary.RubyEvent rubyEvent = (JrubyEventExtLibrary.RubyEvent) arg1;
-            if (rubyEvent.ruby_cancelled(ctx).isTrue()) {
-                return ctx.nil;
+            dissectEvent(ctx, arg1);
+            flushMetrics(ctx);
+            reportSampledLogs();
+            return ctx.nil;
+        }
+
+        // def dissect_multi(events, self)
+        @JRubyMethod(name = "dissect_multi", required = 1)
+        public final IRubyObject dissectMulti(final ThreadContext ctx, final IRubyObject arg1) {
+            final RubyArray<?> events = (RubyArray<?>) arg1;
+            try {
+                dissectBatch(ctx, events);
+            } finally {
+                // one metric update per batch
+                flushMetrics(ctx);
+                reportSampledLogs();
             }
+            return ctx.nil;
+        }
+
+        private void dissectEvent(final ThreadContext ctx, final IRubyObject arg1) {
+            final JrubyEventExtLibrary.RubyEvent rubyEvent = (JrubyEventExtLibrary.RubyEvent) arg1;
             final Event event = rubyEvent.getEvent();
+            if (event.isCancelled()) {
+                return;
+            }
+            // only a sample of the events is logged before and after
+            final boolean logged = LOGGER.isDebugEnabled() && debugSampler.trySample();
             try {
-                if (LOGGER.isDebugEnabled()) {
+                if (logged) {
                     LOGGER.debug("Event before dissection", addLoggableEvent(ctx, rubyEvent, createLoggableHash(ctx)));
                 }
 
+                // the mappings that matched, only needed to skip the conversions of fields that were not dissected
+                final boolean[][] matchedPairs = conversions.length > 0 ? new boolean[dissectors.length][1] : null;
                 if (dissectors.length > 0) {
-                    invokeDissection(ctx, rubyEvent, event);
+                    invokeDissection(ctx, rubyEvent, event, matchedPairs);
                 }
                 if (conversions.length > 0) {
-                    invokeConversions(event);
+                    invokeConversions(event, matchedPairs, 0);
                 }
-                if (LOGGER.isDebugEnabled()) {
+                if (logged) {
                     LOGGER.debug("Event after dissection", addLoggableEvent(ctx, rubyEvent, createLoggableHash(ctx)));
                 }
             } catch (final Exception ex) {
                 invokeFailureTagsAndMetric(ctx, event);
                 logException(ex);
             }
-            return ctx.nil;
-        }
-
-        // def dissect_multi(events, self)
-        @JRubyMethod(name = "dissect_multi", required = 1)
-        public final IRubyObject dissectMulti(final ThreadContext ctx, final IRubyObject arg1) {
-            final RubyArray events = (RubyArray) arg1;
-            Arrays.stream(events.toJavaArray()).forEach(event -> dissect(ctx, event));
-            return ctx.nil;
         }
 
-        private void invokeDissection(final ThreadContext ctx, final JrubyEventExtLibrary.RubyEvent rubyEvent, final Event event) {
+        private void invokeDissection(final ThreadContext ctx, final JrubyEventExtLibrary.RubyEvent rubyEvent, final Event event,
+                                      final boolean[][] matchedPairs) {
              // as there can be multiple dissect patterns, any success is a positive metric
-            for (final DissectPair dissectPair : dissectors) {
-                if (dissectPair.isEmpty()) {
+            for (int pair = 0; pair < dissectors.length; pair++) {
+                if (dissectors[pair].isEmpty()) {
                     continue;
                 }
-                if (!event.includes(dissectPair.javaKey())) {
-                    invokeFailuresMetric(ctx);
-                    LOGGER.warn("Dissector mapping, field not found in event", addLoggableEvent(ctx, rubyEvent,
-                            createHashInclField(ctx, dissectPair.key())));
+                final Outcome outcome = dissectOne(ctx, dissectors[pair], rubyEvent, event);
+                applyOutcome(ctx, pair, rubyEvent, event, outcome);
+                if (outcome == Outcome.MATCHED) {
+                    if (matchedPairs != null) {
+                        matchedPairs[pair][0] = true;
+                    }
+                    countMatch();
+                } else {
+                    countFailure();
+                }
+            }
+        }
+
+        /*
+            The whole batch is dissected one mapping at a time, so the compiled plan of a mapping stays hot
+            while it runs over every event. The events are independent of each other and each event still
+            sees its mappings, callbacks and conversions in the same order as when it is dissected alone.
+            The outcomes of a mapping are applied once it has run over the batch, and the counts once per batch.
+         */
+        private void dissectBatch(final ThreadContext ctx, final RubyArray<?> events) {
+            final int size = events.size();
+            final JrubyEventExtLibrary.RubyEvent[] rubyEvents = new JrubyEventExtLibrary.RubyEvent[size];
+            final Event[] batch = new Event[size];
+            int live = 0;
+            for (int idx = 0; idx < size; idx++) {
+                final JrubyEventExtLibrary.RubyEvent rubyEvent = (JrubyEventExtLibrary.RubyEvent) events.eltInternal(idx);
+                final Event event = rubyEvent.getEvent();
+                // the cancelled flag is read from the Java event, without a call into Ruby
+                if (!event.isCancelled()) {
+                    rubyEvents[live] = rubyEvent;
+                    batch[live++] = event;
+                }
+            }
+            // only a sample of the events is logged before and after
+            final boolean[] logged = new boolean[live];
+            if (LOGGER.isDebugEnabled()) {
+                for (int idx = 0; idx < live; idx++) {
+                    logged[idx] = debugSampler.trySample();
+                    if (!logged[idx]) {
+                        continue;
+                    }
+                    LOGGER.debug("Event before dissection", addLoggableEvent(ctx, rubyEvents[idx], createLoggableHash(ctx)));
+                }
+            }
+            // an event that threw is tagged and logged once, the rest of its mappings and conversions are skipped
+            final boolean[] aborted = new boolean[live];
+            final Outcome[] outcomes = new Outcome[live];
+            final Exception[] errors = new Exception[live];
+            final boolean parallel = pool != null && live >= PARALLEL_MIN_BATCH;
+            final boolean[][] matchedPairs = conversions.length > 0 ? new boolean[dissectors.length][live] : null;
+            long matched = 0;
+            long failed = 0;
+            try {
+                for (int pair = 0; pair < dissectors.length; pair++) {
+                    final DissectPair dissectPair = dissectors[pair];
+                    if (dissectPair.isEmpty()) {
+                        continue;
+                    }
+                    if (parallel) {
+                        dissectInParallel(ctx, dissectPair, rubyEvents, batch, live, aborted, outcomes, errors);
+                    } else {
+                        for (int idx = 0; idx < live; idx++) {
+                            outcomes[idx] = null;
+                            if (aborted[idx]) {
+                                continue;
+                            }
+                            try {
+                                outcomes[idx] = dissectOne(ctx, dissectPair, rubyEvents[idx], batch[idx]);
+                            } catch (final Exception ex) {
+                                errors[idx] = ex;
+                            }
+                        }
+                    }
+                    for (int idx = 0; idx < live; idx++) {
+                        if (errors[idx] != null) {
+                            aborted[idx] = true;
+                            failed++;
+                            invokeFailureTags(batch[idx]);
+                            logException(errors[idx]);
+                            errors[idx] = null;
+                            continue;
+                        }
+                        final Outcome outcome = outcomes[idx];
+                        if (outcome == null) {
+                            continue;
+                        }
+                        if (outcome == Outcome.MATCHED) {
+                            matched++;
+                            if (matchedPairs != null) {
+                                matchedPairs[pair][idx] = true;
+                            }
+                        } else {
+                            failed++;
+                        }
+                        try {
+                            applyOutcome(ctx, pair, rubyEvents[idx], batch[idx], outcome);
+                        } catch (final Exception ex) {
+                            aborted[idx] = true;
+                            failed++;
+                            invokeFailureTags(batch[idx]);
+                            logException(ex);
+                        }
+                    }
+                }
+                if (conversions.length > 0) {
+                    for (int idx = 0; idx < live; idx++) {
+                        if (aborted[idx]) {
+                            continue;
+                        }
+                        try {
+                            invokeConversions(batch[idx], matchedPairs, idx);
+                        } catch (final Exception ex) {
+                            aborted[idx] = true;
+                            failed++;
+                            invokeFailureTags(batch[idx]);
+                            logException(ex);
+                        }
+                    }
+                }
+                for (int idx = 0; idx < live; idx++) {
+                    if (logged[idx] && !aborted[idx]) {
+                        LOGGER.debug("Event after dissection", addLoggableEvent(ctx, rubyEvents[idx], createLoggableHash(ctx)));
+                    }
+                }
+            } finally {
+                matches.add(matched);
+                failures.add(failed);
+            }
+        }
+
+        /*
+            One pass of a mapping over a large batch. The source values are looked up on this thread, the pool
+            finds the values of all the sources and this thread then sets them on the events in batch order.
+            The values are only turned into Ruby Strings when they are set, the pool threads never touch an event.
+         */
+        private void dissectInParallel(final ThreadContext ctx, final DissectPair dissectPair,
+                                       final JrubyEventExtLibrary.RubyEvent[] rubyEvents, final Event[] batch, final int live,
+                                       final boolean[] aborted, final Outcome[] outcomes, final Exception[] errors) {
+            final ByteList[] sources = new ByteList[live];
+            for (int idx = 0; idx < live; idx++) {
+                outcomes[idx] = null;
+                if (aborted[idx]) {
                     continue;
                 }
-                // use ruby event here because we want the bytelist bytes
-                // from the ruby extract without converting to Java
-                final RubyString src = rubyEvent.ruby_get_field(ctx, dissectPair.key()).asString();
-                if (src.isNil()) {
-                    LOGGER.warn("Dissector mapping, no value found for field", addLoggableEvent(ctx, rubyEvent,
-                            createHashInclField(ctx, dissectPair.key())));
-                    invokeFailureTagsAndMetric(ctx, event);
+                try {
+                    sources[idx] = sourceBytes(ctx, dissectPair, rubyEvents[idx], batch[idx]);
+                    if (sources[idx] == null) {
+                        outcomes[idx] = missingSourceOutcome(dissectPair, batch[idx]);
+                    }
+                } catch (final Exception ex) {
+                    errors[idx] = ex;
+                }
+            }
+            final Dissector dissector = dissectPair.dissector();
+            final ValueResolver[] found = new ValueResolver[live];
+            final int chunk = Math.max(MIN_CHUNK, live / (pool.getParallelism() * 4));
+            pool.invoke(new MatchTask(dissector, sources, found, errors, 0, live, chunk));
+            for (int idx = 0; idx < live; idx++) {
+                if (sources[idx] == null || errors[idx] != null) {
                     continue;
                 }
-                if (src.isEmpty()) {
-                    invokeFailureTagsAndMetric(ctx, event);
-                    LOGGER.warn("Dissector mapping, field found in event but it was empty", addLoggableEvent(ctx, rubyEvent,
-                            createHashInclField(ctx, dissectPair.key())));
+                if (found[idx] == null) {
+                    outcomes[idx] = Outcome.PATTERN_NOT_FOUND;
                     continue;
                 }
-                final byte[] bytes = src.getBytes();
-                final DissectResult result = dissectPair.dissector().dissect(bytes, event);
-                if (result.matched()) {
-                    if (runMatched) {
-                        invokeFilterMatched(ctx, rubyEvent);
+                try {
+                    save(dissector, found[idx], batch[idx]);
+                    outcomes[idx] = Outcome.MATCHED;
+                } catch (final Exception ex) {
+                    errors[idx] = ex;
+                }
+            }
+        }
+
+        // the outcome of one mapping for one event, only the bytes of the source are dissected here
+        private enum Outcome {
+            MATCHED("Dissector mapping, pattern found"),
+            PATTERN_NOT_FOUND("Dissector mapping, pattern not found"),
+            EMPTY_VALUE("Dissector mapping, field found in event but it was empty"),
+            NIL_VALUE("Dissector mapping, no value found for field"),
+            FIELD_NOT_FOUND("Dissector mapping, field not found in event");
+
+            private final String message;
+
+            Outcome(final String message) {
+                this.message = message;
+            }
+        }
+
+        private Outcome dissectOne(final ThreadContext ctx, final DissectPair dissectPair,
+                                   final JrubyEventExtLibrary.RubyEvent rubyEvent, final Event event) {
+            final ByteList bytes = sourceBytes(ctx, dissectPair, rubyEvent, event);
+            if (bytes == null) {
+                return missingSourceOutcome(dissectPair, event);
+            }
+            return dissect(dissectPair.dissector(), bytes, event) ? Outcome.MATCHED : Outcome.PATTERN_NOT_FOUND;
+        }
+
+        // the bytes of the source value, null when there is nothing to dissect
+        private static ByteList sourceBytes(final ThreadContext ctx, final DissectPair dissectPair,
+                                            final JrubyEventExtLibrary.RubyEvent rubyEvent, final Event event) {
+            // one lookup of the source value, the reason for a missing value is only worked out on failure
+            final Object value = event.getUnconvertedField(dissectPair.sourceReference());
+            if (value == null) {
+                return null;
+            }
+            // use the bytelist bytes of the ruby string in place, without copying or converting to Java
+            final RubyString src = value instanceof RubyString
+                    ? (RubyString) value
+                    : rubyEvent.ruby_get_field(ctx, dissectPair.key()).asString();
+            final ByteList bytes = src.getByteList();
+            return bytes.realSize() == 0 ? null : bytes;
+        }
+
+        private static Outcome missingSourceOutcome(final DissectPair dissectPair, final Event event) {
+            if (event.getUnconvertedField(dissectPair.sourceReference()) != null) {
+                return Outcome.EMPTY_VALUE;
+            }
+            return event.includes(dissectPair.sourceReference()) ? Outcome.NIL_VALUE : Outcome.FIELD_NOT_FOUND;
+        }
+
+        // the callbacks, tags and logs of an outcome, the caller counts it
+        private void applyOutcome(final ThreadContext ctx, final int pair, final JrubyEventExtLibrary.RubyEvent rubyEvent,
+                                  final Event event, final Outcome outcome) {
+            if (outcome == Outcome.MATCHED) {
+                if (runMatched) {
+                    invokeFilterMatched(ctx, rubyEvent);
+                }
+                return;
+            }
+            // a field that is not found is counted as a failure but not tagged
+            if (outcome != Outcome.FIELD_NOT_FOUND) {
+                invokeFailureTags(event);
+            }
+            failureCounts[pair][outcome.ordinal()].increment();
+            // the event is only converted for the log when it is one of the sample
+            if (LOGGER.isWarnEnabled() && failureSampler.trySample()) {
+                final RubyHash loggableMap = createHashInclField(ctx, dissectors[pair].key());
+                if (outcome == Outcome.PATTERN_NOT_FOUND) {
+                    loggableMap.put("pattern", dissectors[pair].dissector().getMapping());
+                }
+                LOGGER.warn(outcome.message, addLoggableEvent(ctx, rubyEvent, loggableMap));
+            }
+        }
+
+        /*
+            Once per interval, the failures of the interval are logged by mapping and reason when some of the
+            failed events were not logged. This runs after every dissect call or batch and is cheap until an
+            interval has passed.
+         */
+        private void reportSampledLogs() {
+            final long now = System.nanoTime();
+            if (failureSampler.intervalElapsed(now)) {
+                final long suppressed = failureSampler.suppressedThenReset();
+                final List<Map<String, Object>> counts = new ArrayList<>();
+                for (int pair = 0; pair < failureCounts.length; pair++) {
+                    for (final Outcome reason : Outcome.values()) {
+                        final long count = failureCounts[pair][reason.ordinal()].sumThenReset();
+                        if (count > 0) {
+                            final Map<String, Object> entry = new HashMap<>(4);
+                            entry.put("field", dissectors[pair].javaKey());
+                            entry.put("pattern", dissectors[pair].dissector().getMapping());
+                            entry.put("reason", reason.message);
+                            entry.put("count", count);
+                            counts.add(entry);
+                        }
                     }
-                    invokeMatchesMetric(ctx);
-                } else {
-                    invokeFailureTagsAndMetric(ctx, event);
-                    final RubyHash loggableMap = createHashInclField(ctx, dissectPair.key());
-                    loggableMap.put("pattern", dissectPair.dissector().getMapping());
-                    LOGGER.warn("Dissector mapping, pattern not found", addLoggableEvent(ctx, rubyEvent, loggableMap));
                 }
+                if (suppressed > 0) {
+                    final Map<String, Object> map = new HashMap<>(4);
+                    map.put("interval_seconds", LOG_INTERVAL);
+                    map.put("not_logged", suppressed);
+                    map.put("failures", counts);
+                    LOGGER.warn("Dissector mapping failures, only a sample of the failed events was logged", map);
+                }
+            }
+            if (debugSampler.intervalElapsed(now)) {
+                final long suppressed = debugSampler.suppressedThenReset();
+                if (suppressed > 0 && LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Events dissected without a before and after log", Collections.singletonMap("count", suppressed));
+                }
+            }
+        }
+
+        private boolean dissect(final Dissector dissector, final ByteList bytes, final Event event) {
+            if (targetReference == null) {
+                return dissector.dissect(bytes.unsafeBytes(), bytes.begin(), bytes.realSize(), event);
+            }
+            final ConvertedMap target = targetOf(event);
+            if (!dissector.dissect(bytes.unsafeBytes(), bytes.begin(), bytes.realSize(), target, event)) {
+                return false;
+            }
+            event.setField(targetReference, target);
+            return true;
+        }
+
+        private void save(final Dissector dissector, final ValueResolver found, final Event event) {
+            if (targetReference == null) {
+                dissector.save(found, event);
+                return;
             }
+            final ConvertedMap target = targetOf(event);
+            dissector.save(found, target, event);
+            event.setField(targetReference, target);
         }
 
-        private void invokeConversions(final Event event) {
+        // all the fields go into one map that is set once, a map already at the target is built on
+        private ConvertedMap targetOf(final Event event) {
+            final Object existing = event.getUnconvertedField(targetReference);
+            return existing instanceof ConvertedMap
+                    ? ConvertedMap.newFromMap((ConvertedMap) existing)
+                    : ConvertedMap.newFromMap(Collections.emptyMap());
+        }
+
+        private void invokeConversions(final Event event, final boolean[][] matchedPairs, final int idx) {
             for (final ConvertPair convertPair : conversions) {
-                if (!convertPair.converter().isInvalid()) {
-                    try {
-                        convertPair.converter().convert(event, convertPair.src());
-                    } catch (final NumberFormatException e) {
-                        final Object val = event.getField(convertPair.src());
-                        final String msg;
-                        if (val == null) {
-                            event.tag(String.format("_dataconversionnullvalue_%s_%s", convertPair.src(), convertPair.type()));
-                            msg = String.format(
-                                    "Dissector datatype conversion, field does not exist or value is nil, field: %s",
-                                    convertPair.src());
-                        } else {
-                            event.tag(String.format("_dataconversionuncoercible_%s_%s", convertPair.src(), convertPair.type()));
-                            msg = String.format(
-                                    "Dissector datatype conversion, value cannot be coerced, field: %s, value: %s",
-                                    convertPair.src(),
-                                    String.valueOf(val));
-                        }
-                        LOGGER.warn(msg);
+                if (convertPair.converter().isInvalid() || !anyProducerMatched(convertPair, matchedPairs, idx)) {
+                    continue;
+                }
+                final Converter.Status status = convertPair.converter().tryConvert(event, convertPair.reference());
+                if (status == Converter.Status.CONVERTED) {
+                    continue;
+                }
+                final boolean logged = LOGGER.isWarnEnabled() && failureSampler.trySample();
+                if (status == Converter.Status.NULL_VALUE) {
+                    event.tag(convertPair.nullValueTag());
+                    if (logged) {
+                        LOGGER.warn(String.format(
+                                "Dissector datatype conversion, field does not exist or value is nil, field: %s",
+                                convertPair.src()));
+                    }
+                } else {
+                    event.tag(convertPair.uncoercibleTag());
+                    if (logged) {
+                        LOGGER.warn(String.format(
+                                "Dissector datatype conversion, value cannot be coerced, field: %s, value: %s",
+                                convertPair.src(),
+                                String.valueOf(event.getField(convertPair.src()))));
                     }
                 }
             }
         }
 
+        // a field that is set by some mappings is only converted when one of them matched
+        private static boolean anyProducerMatched(final ConvertPair convertPair, final boolean[][] matchedPairs, final int idx) {
+            final int[] producers = convertPair.producers();
+            if (producers.length == 0) {
+                return true;
+            }
+            for (final int pair : producers) {
+                if (matchedPairs[pair][idx]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
         private void invokeFilterMatched(final ThreadContext ctx, final IRubyObject rubyEvent) {
-            final DynamicMethod method = DynamicMethodCache.get(pluginMetaClass, FILTER_MATCHED);
-            if (!method.isUndefined()) {
-                method.call(ctx, plugin, pluginMetaClass, FILTER_MATCHED, new IRubyObject[]{rubyEvent});
+            if (!filterMatchedMethod.isUndefined()) {
+                filterMatchedMethod.call(ctx, plugin, pluginMetaClass, FILTER_MATCHED, new IRubyObject[]{rubyEvent});
             }
         }
 
         private void invokeFailureTagsAndMetric(final ThreadContext ctx, final Event event) {
-            invokeFailuresMetric(ctx);
+            countFailure();
             invokeFailureTags(event);
         }
 
         private String[] fetchFailureTags(final ThreadContext ctx) {
-            final DynamicMethod method = DynamicMethodCache.get(pluginMetaClass, TAG_ON_FAILURE);
+            final DynamicMethod method = pluginMetaClass.searchMethod(TAG_ON_FAILURE);
             String[] result = EMPTY_STRINGS_ARRAY;
             if (!method.isUndefined()) {
                 final IRubyObject obj = method.call(ctx, plugin, pluginMetaClass, TAG_ON_FAILURE);
@@ -251,17 +734,24 @@ public class JavaDissectorLibrary implements Library {
             }
         }
 
-        private void invokeMatchesMetric(final ThreadContext ctx) {
-            final DynamicMethod method = DynamicMethodCache.get(pluginMetaClass, INCREMENT_MATCHES_METRIC);
-            if (!method.isUndefined()) {
-                method.call(ctx, plugin, pluginMetaClass, INCREMENT_MATCHES_METRIC);
-            }
+        private void countMatch() {
+            matches.increment();
         }
 
-        private void invokeFailuresMetric(final ThreadContext ctx) {
-            final DynamicMethod method = DynamicMethodCache.get(pluginMetaClass, INCREMENT_FAILURES_METRIC);
-            if (!method.isUndefined()) {
-                method.call(ctx, plugin, pluginMetaClass, INCREMENT_FAILURES_METRIC);
+        private void countFailure() {
+            failures.increment();
+        }
+
+        private void flushMetrics(final ThreadContext ctx) {
+            // another worker may flush the counts of this one, no count is lost or counted twice
+            flushMetric(ctx, matches, incrementMatchesMethod, INCREMENT_MATCHES_METRIC);
+            flushMetric(ctx, failures, incrementFailuresMethod, INCREMENT_FAILURES_METRIC);
+        }
+
+        private void flushMetric(final ThreadContext ctx, final LongAdder counter, final DynamicMethod method, final String name) {
+            final long count = counter.sumThenReset();
+            if (count > 0 && !method.isUndefined()) {
+                method.call(ctx, plugin, pluginMetaClass, name, RubyFixnum.newFixnum(ctx.runtime, count));
             }
         }
 
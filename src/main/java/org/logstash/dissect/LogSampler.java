@@ -0,0 +1,49 @@
+package org.logstash.dissect;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+    Lets at most a number of log entries through per interval and counts the ones it holds back.
+    It is shared by all the pipeline workers of a filter. When threads race at the end of an interval
+    a few more or fewer entries may get through, no entry is counted twice.
+ */
+final class LogSampler {
+    private final int limit;
+    private final long intervalNanos;
+    private final AtomicLong intervalStart;
+    private final AtomicInteger taken = new AtomicInteger();
+    private final LongAdder suppressed = new LongAdder();
+
+    LogSampler(final int limit, final long interval, final TimeUnit unit) {
+        this.limit = limit;
+        this.intervalNanos = unit.toNanos(interval);
+        this.intervalStart = new AtomicLong(System.nanoTime());
+    }
+
+    // true when the entry may be logged, otherwise it is counted as suppressed
+    boolean trySample() {
+        // the plain read keeps the counter from growing without bounds once the limit is reached
+        if (taken.get() < limit && taken.getAndIncrement() < limit) {
+            return true;
+        }
+        suppressed.increment();
+        return false;
+    }
+
+    // true for one caller once the interval has passed, that caller reports on the interval and a new one starts
+    boolean intervalElapsed(final long now) {
+        final long start = intervalStart.get();
+        if (now - start < intervalNanos || !intervalStart.compareAndSet(start, now)) {
+            return false;
+        }
+        taken.set(0);
+        return true;
+    }
+
+    long suppressedThenReset() {
+        return suppressed.sumThenReset();
+    }
+}
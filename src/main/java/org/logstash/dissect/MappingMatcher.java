@@ -0,0 +1,271 @@
+package org.logstash.dissect;
+
+import org.logstash.ConvertedMap;
+import org.logstash.Event;
+import org.logstash.dissect.fields.Field;
+import org.logstash.dissect.search.DelimiterLocator;
+
+import java.util.Map;
+
+/*
+    Finds the values of a mapping in a source and saves them, interpreting a MatchPlan.
+    Every mapping starts with this interpreter, a mapping that is used often gets straight-line code from MatcherCompiler.
+    The moves that make no delimiter search are shared with the compiled code, so both move through a source alike.
+ */
+final class MappingMatcher implements CompiledMapping {
+    private final MatchPlan plan;
+
+    MappingMatcher(final MatchPlan plan) {
+        this.plan = plan;
+    }
+
+    @Override
+    public boolean match(final byte[] source, final int begin, final int end, final Position position, final ValueResolver values) {
+        if (plan.scanner() != null) {
+            return plan.scanner().scan(source, begin, end, values);
+        }
+        position.reset(source, begin, end);
+        final Field[] fields = plan.fields();
+        final int lastFieldIndex = fields.length - 1;
+        final int spanningIndex = plan.spanningIndex();
+        if (spanningIndex != MatchPlan.NO_SPANNING_FIELD && spanningIndex < lastFieldIndex) {
+            return matchAroundSpan(position, values);
+        }
+        final int firstFieldOffset = plan.firstFieldOffset();
+        final boolean[] skipsRepeatsBefore = plan.skipsRepeatsBefore();
+        for (int idx = 0; idx < lastFieldIndex; idx++) {
+            final Field field = fields[idx];
+            // each delimiter is given a strategy that uses the indexOf method
+            // to search in the source bytes for itself starting from
+            // where we think next field might begin (left)
+            if (!moveBeyondDelimiter(position, field.previousDelimiter(), skipsRepeatsBefore[idx], firstFieldOffset)) {
+                return false;
+            }
+            final boolean found;
+            if (field.width() > 0) {
+                // fixed width, the end is known and the next delimiter must be right there
+                found = moveFixed(position, field.width(), field.nextDelimiter());
+            } else {
+                found = moveNext(position, field.nextDelimiter());
+            }
+            if (!found) {
+                return false;
+            }
+            values.set(field.id(), position.start, position.length);
+        }
+        final Field lastField = fields[lastFieldIndex];
+        if (!moveBeyondDelimiter(position, lastField.previousDelimiter(), skipsRepeatsBefore[lastFieldIndex], firstFieldOffset)) {
+            return false;
+        }
+        if (lastField.width() > 0) {
+            if (!repositionToWidth(position, lastField.width())) {
+                return false;
+            }
+        } else {
+            repositionToEnd(position);
+        }
+        values.set(lastField.id(), position.start, position.length);
+        return true;
+    }
+
+    private boolean matchAroundSpan(final Position position, final ValueResolver values) {
+        final Field[] fields = plan.fields();
+        final int spanningIndex = plan.spanningIndex();
+        final int firstFieldOffset = plan.firstFieldOffset();
+        final boolean[] skipsRepeatsBefore = plan.skipsRepeatsBefore();
+        // the fields before the spanning field are found from the left, as usual
+        for (int idx = 0; idx < spanningIndex; idx++) {
+            final Field field = fields[idx];
+            if (!moveBeyondDelimiter(position, field.previousDelimiter(), skipsRepeatsBefore[idx], firstFieldOffset)) {
+                return false;
+            }
+            final boolean found;
+            if (field.width() > 0) {
+                found = moveFixed(position, field.width(), field.nextDelimiter());
+            } else {
+                found = moveNext(position, field.nextDelimiter());
+            }
+            if (!found) {
+                return false;
+            }
+            values.set(field.id(), position.start, position.length);
+        }
+        final Field spanningField = fields[spanningIndex];
+        if (!moveBeyondDelimiter(position, spanningField.previousDelimiter(), skipsRepeatsBefore[spanningIndex], firstFieldOffset)) {
+            return false;
+        }
+        // the spanning value starts here, nothing after it may be found before this point
+        final int lowest = position.start;
+        // the fields after the spanning field are found from the right, the last occurrence of each delimiter
+        for (int idx = fields.length - 1; idx > spanningIndex; idx--) {
+            final Field field = fields[idx];
+            final boolean found;
+            if (field.width() > 0) {
+                found = moveBackFixed(position, field.width(), field.previousDelimiter(), lowest);
+            } else {
+                found = moveBack(position, field.previousDelimiter(), lowest);
+            }
+            if (!found) {
+                return false;
+            }
+            values.set(field.id(), position.start, position.length);
+            if (skipsRepeatsBefore[idx]) {
+                moveBeforeRepeats(position, field.previousDelimiter(), lowest);
+            }
+        }
+        // what is left between the two sides is the spanning value
+        values.set(spanningField.id(), lowest, position.right - lowest);
+        return true;
+    }
+
+    @Override
+    public void save(final Map<String, Object> keyValueMap, final ValueResolver values) {
+        // iterate through the sorted saveable fields only
+        for (final Field field : plan.saveable()) {
+            // allow the field to append its key and
+            // use the resolver to extract the value from the source bytes
+            field.append(keyValueMap, values);
+        }
+    }
+
+    @Override
+    public void save(final Event event, final ValueResolver values) {
+        for (final Field field : plan.saveable()) {
+            field.append(event, values);
+        }
+    }
+
+    @Override
+    public void saveTarget(final ConvertedMap target, final ValueResolver values) {
+        for (final Field field : plan.saveable()) {
+            field.appendTarget(target, values);
+        }
+    }
+
+    static void repositionToEnd(final Position position) {
+        position.pos = position.end;
+        position.setLength();
+    }
+
+    static boolean repositionToWidth(final Position position, final int width) {
+        position.pos = position.left + width;
+        if (position.pos > position.end) {
+            return false;
+        }
+        position.setLength();
+        return true;
+    }
+
+    private static boolean moveFixed(final Position position, final int width, final Delimiter next) {
+        position.pos = position.left + width;
+        return fixedAt(position, next.locator().isAt(next.bytes(), position.source, position.pos, position.end), next.size());
+    }
+
+    // the end of a fixed width value is at pos, at is whether the next delimiter is there
+    static boolean fixedAt(final Position position, final boolean at, final int size) {
+        if (at) {
+            position.setLength();
+            position.left = position.pos + size;
+            return true;
+        }
+        // the source is too short or the next delimiter is not directly after the value
+        position.length = 0;
+        return false;
+    }
+
+    private static boolean moveNext(final Position position, final Delimiter next) {
+        return foundNext(position, next.locator().indexOf(next.bytes(), position.source, position.left, position.end), next.size());
+    }
+
+    // found is where the search for the next delimiter of size bytes found it
+    static boolean foundNext(final Position position, final int found, final int size) {
+        position.length = 0;
+        position.pos = found;
+        if (position.pos == -1) {
+            // the next delimiter was never found at all, bail out
+            return false;
+        }
+        if (position.pos > position.begin) {
+            // pos is now at the next delimiter, found the end of the field
+            position.setLength();
+            // set left to be the end of the delimiter & start index of the next field
+            position.left = position.pos + size;
+        }
+        return true;
+    }
+
+    private static boolean moveBack(final Position position, final Delimiter prev, final int lowest) {
+        // the last occurrence of the delimiter before right, an empty delimiter is never found
+        return foundBack(position, prev.locator().lastIndexOf(prev.bytes(), position.source, position.right - prev.size(), lowest), prev.size());
+    }
+
+    // found is where the search back for the previous delimiter of size bytes found it
+    static boolean foundBack(final Position position, final int found, final int size) {
+        if (found == -1) {
+            position.length = 0;
+            return false;
+        }
+        position.start = found + size;
+        position.length = position.right - position.start;
+        position.right = found;
+        return true;
+    }
+
+    private static boolean moveBackFixed(final Position position, final int width, final Delimiter prev, final int lowest) {
+        position.start = position.right - width;
+        final int found = position.start - prev.size();
+        if (found >= lowest && prev.locator().isAt(prev.bytes(), position.source, found, position.end)) {
+            position.length = width;
+            position.right = found;
+            return true;
+        }
+        // the source is too short or the previous delimiter is not directly before the value
+        position.length = 0;
+        return false;
+    }
+
+    private static void moveBeforeRepeats(final Position position, final Delimiter prev, final int lowest) {
+        // greedy consume from the right, move to the start of the run of delimiters that ends at right
+        final DelimiterLocator locator = prev.locator();
+        final int size = prev.size();
+        while (size > 0 && position.right - size >= lowest && locator.isAt(prev.bytes(), position.source, position.right - size, position.end)) {
+            position.right -= size;
+        }
+    }
+
+    // at is whether the first delimiter, of size bytes, is at the very start of the source
+    static boolean leadingAt(final Position position, final boolean at, final int size) {
+        if (!at) {
+            // no first delimiter was found at the start of the source, bail
+            return false;
+        }
+        position.left = position.begin + size;
+        return true;
+    }
+
+    private static boolean moveBeyondDelimiter(final Position position, final Delimiter prev, final boolean skipRepeats, final int firstFieldOffset) {
+        // we use this method to move past one or more consecutive delimiters if greedy
+        if (prev == null) {
+            // we are at the start
+            position.setStart();
+            return true;
+        }
+        // need to handle the starting delimiter case
+        if (position.left == position.begin && firstFieldOffset > 0) {
+            // there is a first delimiter and we have not yet found it and skipped over it.
+            // first delimiter must appear just before the start of the value.
+            if (!leadingAt(position, prev.locator().isAt(prev.bytes(), position.source, position.begin, position.end), prev.size())) {
+                return false;
+            }
+        }
+        if (skipRepeats) {
+            // greedy consume, used '->' suffix or a run of class bytes
+            // move to the end of the run of delimiters that starts at left
+            position.left = prev.locator().skipRepeats(prev.bytes(), position.source, position.left, position.end);
+        }
+        // we move the start to be where the left is now.
+        // left is at the start of the field (after this delimiter)
+        position.setStart();
+        return true;
+    }
+}
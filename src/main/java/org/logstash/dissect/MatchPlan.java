@@ -0,0 +1,14 @@
+package org.logstash.dissect;
+
+import org.logstash.dissect.fields.Field;
+
+/*
+    The compiled form of a mapping that MappingMatcher runs and that MatcherCompiler turns into code.
+    A record, so that the JIT trusts its final fields.
+    The arrays are built by Dissector.compile and never written after, they are not handed out of this package.
+    skipsRepeatsBefore[idx] is true when the repeats of the delimiter before fields[idx] are skipped,
+    after a '->' field or for a run of class bytes.
+ */
+record MatchPlan(Field[] fields, Field[] saveable, boolean[] skipsRepeatsBefore, SinglePassScanner scanner, int spanningIndex, int firstFieldOffset) {
+    static final int NO_SPANNING_FIELD = -1;
+}
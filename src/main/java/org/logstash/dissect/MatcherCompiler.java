@@ -0,0 +1,383 @@
+package org.logstash.dissect;
+
+import org.jruby.org.objectweb.asm.ClassWriter;
+import org.jruby.org.objectweb.asm.Label;
+import org.jruby.org.objectweb.asm.MethodVisitor;
+import org.jruby.org.objectweb.asm.Opcodes;
+import org.jruby.org.objectweb.asm.Type;
+import org.logstash.ConvertedMap;
+import org.logstash.Event;
+import org.logstash.dissect.fields.Field;
+import org.logstash.dissect.search.DelimiterLocator;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/*
+    Emits a hidden class per mapping that does what MappingMatcher does for its MatchPlan, in straight-line code.
+    The field loops are unrolled, one block of code per field, and every delimiter, locator and field is a constant
+    loaded from the class data. Each search and save call site then has one constant receiver of a known type,
+    so it is bound to that one method and can be inlined whatever the other mappings of the pipeline use.
+    The constants are static final fields set from the class data by the class initializer, all of them are resolved
+    before the first match, the JIT does not compile code that loads a constant that is not resolved yet.
+    The bytecode is written with the ASM that JRuby ships, a mapping is left to the interpreter when it is not there.
+    The generated class is in this package, it uses the package private members of Position, ValueResolver
+    and the shared moves of MappingMatcher that make no calls that depend on the mapping.
+ */
+final class MatcherCompiler implements Opcodes {
+    private static final String CLASS_NAME = "org/logstash/dissect/CompiledMatcher";
+    private static final String OBJECT = Type.getInternalName(Object.class);
+    private static final String POSITION = Type.getInternalName(Position.class);
+    private static final String POSITION_DESC = Type.getDescriptor(Position.class);
+    private static final String RESOLVER = Type.getInternalName(ValueResolver.class);
+    private static final String RESOLVER_DESC = Type.getDescriptor(ValueResolver.class);
+    private static final String INTERPRETER = Type.getInternalName(MappingMatcher.class);
+    private static final String LOCATOR = Type.getInternalName(DelimiterLocator.class);
+    private static final String FIELD = Type.getInternalName(Field.class);
+    private static final String SCANNER = Type.getInternalName(SinglePassScanner.class);
+    private static final String SEARCH_DESC = "([B[BII)I";
+    private static final String IS_AT_DESC = "([B[BII)Z";
+    private static final String LOOKUP_DESC = Type.getDescriptor(MethodHandles.Lookup.class);
+    private static final String LIST = Type.getInternalName(List.class);
+
+    // the locals of match
+    private static final int SOURCE = 1;
+    private static final int BEGIN = 2;
+    private static final int END = 3;
+    private static final int POS = 4;
+    private static final int VALUES = 5;
+    private static final int LOWEST = 6;
+
+    private final MatchPlan plan;
+    // the class data, each constant is the static final field of its index
+    private final List<Object> constants = new ArrayList<>();
+    private final List<String> constantTypes = new ArrayList<>();
+    private MethodVisitor mv;
+    private Label fail;
+
+    private MatcherCompiler(final MatchPlan plan) {
+        this.plan = plan;
+    }
+
+    static CompiledMapping compile(final MatchPlan plan) throws ReflectiveOperationException {
+        final MatcherCompiler compiler = new MatcherCompiler(plan);
+        final byte[] bytes = compiler.generate();
+        final MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClassWithClassData(bytes, List.copyOf(compiler.constants), true);
+        return (CompiledMapping) lookup.lookupClass().getDeclaredConstructor().newInstance();
+    }
+
+    private byte[] generate() {
+        final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+            @Override
+            protected String getCommonSuperClass(final String type1, final String type2) {
+                // the locals of a method never change type, frames only ever merge equal types
+                return OBJECT;
+            }
+        };
+        cw.visit(V17, ACC_FINAL | ACC_SUPER, CLASS_NAME, null, OBJECT, new String[]{Type.getInternalName(CompiledMapping.class)});
+        mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitMethodInsn(INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        generateMatch(cw);
+        generateSave(cw, "save", Type.getDescriptor(Map.class), "append");
+        generateSave(cw, "save", Type.getDescriptor(Event.class), "append");
+        generateSave(cw, "saveTarget", Type.getDescriptor(ConvertedMap.class), "appendTarget");
+        generateConstants(cw);
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private void generateMatch(final ClassWriter cw) {
+        mv = cw.visitMethod(ACC_PUBLIC, "match", "([BII" + POSITION_DESC + RESOLVER_DESC + ")Z", null, null);
+        mv.visitCode();
+        if (plan.scanner() != null) {
+            loadConstant(plan.scanner(), SinglePassScanner.class);
+            mv.visitVarInsn(ALOAD, SOURCE);
+            mv.visitVarInsn(ILOAD, BEGIN);
+            mv.visitVarInsn(ILOAD, END);
+            mv.visitVarInsn(ALOAD, VALUES);
+            mv.visitMethodInsn(INVOKEVIRTUAL, SCANNER, "scan", "([BII" + RESOLVER_DESC + ")Z", false);
+            mv.visitInsn(IRETURN);
+        } else {
+            fail = new Label();
+            mv.visitVarInsn(ALOAD, POS);
+            mv.visitVarInsn(ALOAD, SOURCE);
+            mv.visitVarInsn(ILOAD, BEGIN);
+            mv.visitVarInsn(ILOAD, END);
+            mv.visitMethodInsn(INVOKEVIRTUAL, POSITION, "reset", "([BII)V", false);
+            final Field[] fields = plan.fields();
+            final int lastFieldIndex = fields.length - 1;
+            final int spanningIndex = plan.spanningIndex();
+            if (spanningIndex != MatchPlan.NO_SPANNING_FIELD && spanningIndex < lastFieldIndex) {
+                matchAroundSpan(fields, spanningIndex);
+            } else {
+                for (int idx = 0; idx < lastFieldIndex; idx++) {
+                    moveBeyondDelimiter(idx);
+                    moveNext(fields[idx]);
+                    setValue(fields[idx]);
+                }
+                final Field lastField = fields[lastFieldIndex];
+                moveBeyondDelimiter(lastFieldIndex);
+                mv.visitVarInsn(ALOAD, POS);
+                if (lastField.width() > 0) {
+                    push(lastField.width());
+                    mv.visitMethodInsn(INVOKESTATIC, INTERPRETER, "repositionToWidth", "(" + POSITION_DESC + "I)Z", false);
+                    mv.visitJumpInsn(IFEQ, fail);
+                } else {
+                    mv.visitMethodInsn(INVOKESTATIC, INTERPRETER, "repositionToEnd", "(" + POSITION_DESC + ")V", false);
+                }
+                setValue(lastField);
+                mv.visitInsn(ICONST_1);
+                mv.visitInsn(IRETURN);
+            }
+            mv.visitLabel(fail);
+            mv.visitInsn(ICONST_0);
+            mv.visitInsn(IRETURN);
+        }
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private void matchAroundSpan(final Field[] fields, final int spanningIndex) {
+        for (int idx = 0; idx < spanningIndex; idx++) {
+            moveBeyondDelimiter(idx);
+            moveNext(fields[idx]);
+            setValue(fields[idx]);
+        }
+        moveBeyondDelimiter(spanningIndex);
+        mv.visitVarInsn(ALOAD, POS);
+        mv.visitFieldInsn(GETFIELD, POSITION, "start", "I");
+        mv.visitVarInsn(ISTORE, LOWEST);
+        for (int idx = fields.length - 1; idx > spanningIndex; idx--) {
+            moveBack(fields[idx]);
+            setValue(fields[idx]);
+            if (plan.skipsRepeatsBefore()[idx]) {
+                moveBeforeRepeats(fields[idx].previousDelimiter());
+            }
+        }
+        // values.set(spanning id, lowest, position.right - lowest)
+        mv.visitVarInsn(ALOAD, VALUES);
+        push(fields[spanningIndex].id());
+        mv.visitVarInsn(ILOAD, LOWEST);
+        getPosition("right");
+        mv.visitVarInsn(ILOAD, LOWEST);
+        mv.visitInsn(ISUB);
+        mv.visitMethodInsn(INVOKEVIRTUAL, RESOLVER, "set", "(III)V", false);
+        mv.visitInsn(ICONST_1);
+        mv.visitInsn(IRETURN);
+    }
+
+    // see MappingMatcher.moveBeyondDelimiter
+    private void moveBeyondDelimiter(final int idx) {
+        final Delimiter prev = plan.fields()[idx].previousDelimiter();
+        if (prev != null) {
+            if (plan.firstFieldOffset() > 0) {
+                final Label started = new Label();
+                getPosition("left");
+                getPosition("begin");
+                mv.visitJumpInsn(IF_ICMPNE, started);
+                mv.visitVarInsn(ALOAD, POS);
+                isAt(prev, () -> getPosition("begin"));
+                push(prev.size());
+                mv.visitMethodInsn(INVOKESTATIC, INTERPRETER, "leadingAt", "(" + POSITION_DESC + "ZI)Z", false);
+                mv.visitJumpInsn(IFEQ, fail);
+                mv.visitLabel(started);
+            }
+            if (plan.skipsRepeatsBefore()[idx]) {
+                mv.visitVarInsn(ALOAD, POS);
+                search(prev, "skipRepeats", () -> getPosition("left"), () -> getPosition("end"));
+                mv.visitFieldInsn(PUTFIELD, POSITION, "left", "I");
+            }
+        }
+        mv.visitVarInsn(ALOAD, POS);
+        mv.visitMethodInsn(INVOKEVIRTUAL, POSITION, "setStart", "()V", false);
+    }
+
+    // see MappingMatcher.moveNext and moveFixed
+    private void moveNext(final Field field) {
+        final Delimiter next = field.nextDelimiter();
+        if (field.width() > 0) {
+            // position.pos = position.left + width
+            mv.visitVarInsn(ALOAD, POS);
+            getPosition("left");
+            push(field.width());
+            mv.visitInsn(IADD);
+            mv.visitFieldInsn(PUTFIELD, POSITION, "pos", "I");
+            mv.visitVarInsn(ALOAD, POS);
+            isAt(next, () -> getPosition("pos"));
+            push(next.size());
+            mv.visitMethodInsn(INVOKESTATIC, INTERPRETER, "fixedAt", "(" + POSITION_DESC + "ZI)Z", false);
+        } else {
+            mv.visitVarInsn(ALOAD, POS);
+            search(next, "indexOf", () -> getPosition("left"), () -> getPosition("end"));
+            push(next.size());
+            mv.visitMethodInsn(INVOKESTATIC, INTERPRETER, "foundNext", "(" + POSITION_DESC + "II)Z", false);
+        }
+        mv.visitJumpInsn(IFEQ, fail);
+    }
+
+    // see MappingMatcher.moveBack and moveBackFixed
+    private void moveBack(final Field field) {
+        final Delimiter prev = field.previousDelimiter();
+        if (field.width() > 0) {
+            final Label notFound = new Label();
+            final Label found = new Label();
+            // position.start = position.right - width
+            mv.visitVarInsn(ALOAD, POS);
+            getPosition("right");
+            push(field.width());
+            mv.visitInsn(ISUB);
+            mv.visitFieldInsn(PUTFIELD, POSITION, "start", "I");
+            beforePosition("start", prev.size());
+            mv.visitVarInsn(ILOAD, LOWEST);
+            mv.visitJumpInsn(IF_ICMPLT, notFound);
+            isAt(prev, () -> beforePosition("start", prev.size()));
+            mv.visitJumpInsn(IFEQ, notFound);
+            mv.visitVarInsn(ALOAD, POS);
+            push(field.width());
+            mv.visitFieldInsn(PUTFIELD, POSITION, "length", "I");
+            mv.visitVarInsn(ALOAD, POS);
+            beforePosition("start", prev.size());
+            mv.visitFieldInsn(PUTFIELD, POSITION, "right", "I");
+            mv.visitJumpInsn(GOTO, found);
+            mv.visitLabel(notFound);
+            mv.visitVarInsn(ALOAD, POS);
+            mv.visitInsn(ICONST_0);
+            mv.visitFieldInsn(PUTFIELD, POSITION, "length", "I");
+            mv.visitJumpInsn(GOTO, fail);
+            mv.visitLabel(found);
+        } else {
+            mv.visitVarInsn(ALOAD, POS);
+            search(prev, "lastIndexOf", () -> beforePosition("right", prev.size()), () -> mv.visitVarInsn(ILOAD, LOWEST));
+            push(prev.size());
+            mv.visitMethodInsn(INVOKESTATIC, INTERPRETER, "foundBack", "(" + POSITION_DESC + "II)Z", false);
+            mv.visitJumpInsn(IFEQ, fail);
+        }
+    }
+
+    // see MappingMatcher.moveBeforeRepeats
+    private void moveBeforeRepeats(final Delimiter prev) {
+        if (prev.size() == 0) {
+            return;
+        }
+        final Label loop = new Label();
+        final Label done = new Label();
+        mv.visitLabel(loop);
+        beforePosition("right", prev.size());
+        mv.visitVarInsn(ILOAD, LOWEST);
+        mv.visitJumpInsn(IF_ICMPLT, done);
+        isAt(prev, () -> beforePosition("right", prev.size()));
+        mv.visitJumpInsn(IFEQ, done);
+        mv.visitVarInsn(ALOAD, POS);
+        beforePosition("right", prev.size());
+        mv.visitFieldInsn(PUTFIELD, POSITION, "right", "I");
+        mv.visitJumpInsn(GOTO, loop);
+        mv.visitLabel(done);
+    }
+
+    // values.set(field id, position.start, position.length)
+    private void setValue(final Field field) {
+        mv.visitVarInsn(ALOAD, VALUES);
+        push(field.id());
+        getPosition("start");
+        getPosition("length");
+        mv.visitMethodInsn(INVOKEVIRTUAL, RESOLVER, "set", "(III)V", false);
+    }
+
+    private void generateSave(final ClassWriter cw, final String name, final String outputDesc, final String append) {
+        mv = cw.visitMethod(ACC_PUBLIC, name, "(" + outputDesc + RESOLVER_DESC + ")V", null, null);
+        mv.visitCode();
+        for (final Field field : plan.saveable()) {
+            loadConstant(field, Field.class);
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitMethodInsn(INVOKEINTERFACE, FIELD, append, "(" + outputDesc + RESOLVER_DESC + ")V", true);
+        }
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    // locator.isAt(needle, position.source, offset, position.end)
+    private void isAt(final Delimiter delimiter, final Runnable offset) {
+        loadConstant(delimiter.locator(), DelimiterLocator.class);
+        loadConstant(delimiter.bytes(), byte[].class);
+        getPosition("source");
+        offset.run();
+        getPosition("end");
+        mv.visitMethodInsn(INVOKEINTERFACE, LOCATOR, "isAt", IS_AT_DESC, true);
+    }
+
+    // locator.method(needle, position.source, from, to)
+    private void search(final Delimiter delimiter, final String method, final Runnable from, final Runnable to) {
+        loadConstant(delimiter.locator(), DelimiterLocator.class);
+        loadConstant(delimiter.bytes(), byte[].class);
+        getPosition("source");
+        from.run();
+        to.run();
+        mv.visitMethodInsn(INVOKEINTERFACE, LOCATOR, method, SEARCH_DESC, true);
+    }
+
+    private void getPosition(final String name) {
+        mv.visitVarInsn(ALOAD, POS);
+        mv.visitFieldInsn(GETFIELD, POSITION, name, name.equals("source") ? "[B" : "I");
+    }
+
+    // position.name - size
+    private void beforePosition(final String name, final int size) {
+        getPosition(name);
+        push(size);
+        mv.visitInsn(ISUB);
+    }
+
+    // a static final field per constant, set from the list that is the class data
+    private void generateConstants(final ClassWriter cw) {
+        mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+        mv.visitCode();
+        mv.visitMethodInsn(INVOKESTATIC, Type.getInternalName(MethodHandles.class), "lookup", "()" + LOOKUP_DESC, false);
+        mv.visitLdcInsn(ConstantDescs.DEFAULT_NAME);
+        mv.visitLdcInsn(Type.getType(List.class));
+        mv.visitMethodInsn(INVOKESTATIC, Type.getInternalName(MethodHandles.class), "classData",
+                "(" + LOOKUP_DESC + "Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/Object;", false);
+        mv.visitTypeInsn(CHECKCAST, LIST);
+        mv.visitVarInsn(ASTORE, 0);
+        for (int idx = 0; idx < constants.size(); idx++) {
+            final String type = constantTypes.get(idx);
+            cw.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, "c" + idx, type, null, null).visitEnd();
+            mv.visitVarInsn(ALOAD, 0);
+            push(idx);
+            mv.visitMethodInsn(INVOKEINTERFACE, LIST, "get", "(I)Ljava/lang/Object;", true);
+            mv.visitTypeInsn(CHECKCAST, Type.getType(type).getInternalName());
+            mv.visitFieldInsn(PUTSTATIC, CLASS_NAME, "c" + idx, type);
+        }
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private void loadConstant(final Object value, final Class<?> type) {
+        final String descriptor = Type.getDescriptor(type);
+        mv.visitFieldInsn(GETSTATIC, CLASS_NAME, "c" + constants.size(), descriptor);
+        constants.add(value);
+        constantTypes.add(descriptor);
+    }
+
+    private void push(final int value) {
+        if (value >= -1 && value <= 5) {
+            mv.visitInsn(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(BIPUSH, value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            mv.visitIntInsn(SIPUSH, value);
+        } else {
+            mv.visitLdcInsn(value);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.logstash.dissect;
+
+// the per thread state of a search through one source, reused for every dissection on the thread
+final class Position {
+    private static final byte[] EMPTY_SOURCE = new byte[0];
+
+    int pos;
+    int left;
+    byte[] source;
+    // the text is the bytes from begin up to but not including end
+    int begin;
+    int end;
+    int start;
+    int length;
+    // the end of the next value when moving from right to left
+    int right;
+
+    Position() {
+        release();
+    }
+
+    void release() {
+        reset(EMPTY_SOURCE, 0, 0);
+    }
+
+    void reset(final byte[] sourceBytes, final int sourceBegin, final int sourceEnd) {
+        source = sourceBytes;
+        begin = sourceBegin;
+        end = sourceEnd;
+        left = sourceBegin;
+        pos = sourceBegin;
+        start = sourceBegin;
+        length = 0;
+        right = sourceEnd;
+    }
+
+    void setStart() {
+        start = left;
+    }
+
+    void setLength() {
+        length = pos - left;
+    }
+}
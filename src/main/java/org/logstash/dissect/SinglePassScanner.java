@@ -0,0 +1,168 @@
+package org.logstash.dissect;
+
+import org.logstash.dissect.fields.Field;
+
+import java.util.Arrays;
+import java.util.List;
+
+/*
+    An alternative to calling Delimiter.indexOf once per field.
+    All the delimiters of a mapping are compiled into one byte-class DFA: the states for each
+    delimiter are its KMP prefix states and completing delimiter k hands over to the start state
+    of delimiter k + 1. The source is walked once, field boundaries are recorded as delimiters complete.
+    The semantics are the same as the per field search: the first occurrence of the next delimiter
+    at or after the start of the current field, with '->' repetition and the leading delimiter rules.
+    Only mappings without fixed width or spanning fields, where every field but the last has a non empty next
+    delimiter that is not a byte class, can be scanned this way.
+ */
+final class SinglePassScanner {
+    private static final int ALPHABET_SIZE = 256;
+    private static final int MATCHED = -1;
+
+    private final byte[][] delimiters;
+    // the delimiters with a '->' suffix, null for all others
+    private final Delimiter[] greedy;
+    private final int[] fieldIds;
+    private final int lastFieldId;
+    private final byte[] leading;
+    // the first DFA state of each delimiter, states are stored premultiplied by classCount
+    private final int[] startStates;
+    // maps every byte to its class, bytes that do not occur in any delimiter share class 0
+    private final int[] byteClasses;
+    private final int classCount;
+    // transitions[state + class] is the next state or MATCHED
+    private final int[] transitions;
+
+    private SinglePassScanner(final List<Field> fields, final byte[] leading) {
+        final int delimiterCount = fields.size() - 1;
+        this.leading = leading;
+        delimiters = new byte[delimiterCount][];
+        greedy = new Delimiter[delimiterCount];
+        fieldIds = new int[delimiterCount];
+        for (int k = 0; k < delimiterCount; k++) {
+            final Field field = fields.get(k);
+            delimiters[k] = field.nextDelimiter().bytes();
+            greedy[k] = field.greedy() ? field.nextDelimiter() : null;
+            fieldIds[k] = field.id();
+        }
+        lastFieldId = fields.get(delimiterCount).id();
+
+        byteClasses = new int[ALPHABET_SIZE];
+        final byte[] representatives = new byte[ALPHABET_SIZE];
+        int classes = 1;
+        for (final byte[] delimiter : delimiters) {
+            for (final byte b : delimiter) {
+                if (byteClasses[b & 0xFF] == 0) {
+                    representatives[classes] = b;
+                    byteClasses[b & 0xFF] = classes++;
+                }
+            }
+        }
+        classCount = classes;
+
+        startStates = new int[delimiterCount];
+        int stateCount = 0;
+        for (int k = 0; k < delimiterCount; k++) {
+            startStates[k] = stateCount * classCount;
+            stateCount += delimiters[k].length;
+        }
+        transitions = new int[stateCount * classCount];
+        for (int k = 0; k < delimiterCount; k++) {
+            addDelimiterStates(delimiters[k], startStates[k], representatives);
+        }
+    }
+
+    static boolean canScan(final List<Field> fields) {
+        if (fields.size() < 2) {
+            return false;
+        }
+        for (int k = 0; k < fields.size(); k++) {
+            if (fields.get(k).width() > 0 || fields.get(k).spanning()) {
+                return false;
+            }
+            if (k < fields.size() - 1 && (fields.get(k).nextDelimiter().size() == 0 || fields.get(k).nextDelimiter().isByteClass())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static SinglePassScanner create(final List<Field> fields) {
+        final Delimiter first = fields.get(0).previousDelimiter();
+        final byte[] leading = first == null ? new byte[0] : first.bytes();
+        return new SinglePassScanner(fields, leading);
+    }
+
+    private void addDelimiterStates(final byte[] delimiter, final int base, final byte[] representatives) {
+        // KMP failure function, failure[j] is the length of the longest proper border of delimiter[0..j]
+        final int[] failure = new int[delimiter.length];
+        for (int j = 1, border = 0; j < delimiter.length; j++) {
+            while (border > 0 && delimiter[j] != delimiter[border]) {
+                border = failure[border - 1];
+            }
+            if (delimiter[j] == delimiter[border]) {
+                border++;
+            }
+            failure[j] = border;
+        }
+        // state j means the previous j bytes matched the start of the delimiter
+        for (int j = 0; j < delimiter.length; j++) {
+            for (int c = 0; c < classCount; c++) {
+                int matched = j;
+                while (matched > 0 && (c == 0 || delimiter[matched] != representatives[c])) {
+                    matched = failure[matched - 1];
+                }
+                if (c != 0 && delimiter[matched] == representatives[c]) {
+                    matched++;
+                }
+                transitions[base + j * classCount + c] = matched == delimiter.length ? MATCHED : base + matched * classCount;
+            }
+        }
+    }
+
+    boolean scan(final byte[] source, final int begin, final int end, final ValueResolver values) {
+        int left = begin;
+        if (leading.length > 0) {
+            // the leading delimiter must be at the very start of the source
+            if (!regionMatches(source, begin, end, leading)) {
+                return false;
+            }
+            left = begin + leading.length;
+        }
+        int start = left;
+        for (int field = 0; field < delimiters.length; field++) {
+            int state = startStates[field];
+            int i = left;
+            for (; i < end; i++) {
+                state = transitions[state + byteClasses[source[i] & 0xFF]];
+                if (state == MATCHED) {
+                    break;
+                }
+            }
+            if (i == end) {
+                // the next delimiter was never found at all
+                return false;
+            }
+            final byte[] delimiter = delimiters[field];
+            final int pos = i - delimiter.length + 1;
+            int length = 0;
+            if (pos > begin) {
+                length = pos - left;
+                left = pos + delimiter.length;
+            }
+            // a delimiter found at the very start leaves left at the start, as Delimiter.indexOf based dissection does
+            values.set(fieldIds[field], start, length);
+            if (greedy[field] != null) {
+                left = greedy[field].skipRepeats(source, left, end);
+            }
+            start = left;
+        }
+        values.set(lastFieldId, start, end - start);
+        return true;
+    }
+
+    private static boolean regionMatches(final byte[] source, final int offset, final int end, final byte[] delimiter) {
+        final int delimiterEnd = offset + delimiter.length;
+        return delimiterEnd <= end && Arrays.equals(source, offset, delimiterEnd, delimiter, 0, delimiter.length);
+    }
+}
@@ -1,30 +1,131 @@
 package org.logstash.dissect;
 
+import org.jcodings.specific.UTF8Encoding;
+import org.jruby.RubyString;
+import org.jruby.util.ByteList;
+import org.jruby.util.StringSupport;
+import org.logstash.Event;
+import org.logstash.RubyUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
 public final class ValueResolver {
-    private final byte[] source;
-    private final ValueRef[] fieldValues;
+    private static final byte[] EMPTY_SOURCE = new byte[0];
+    // the start of each fields value is at 2 * id and its length at 2 * id + 1
+    private final int[] offsets;
+    private byte[] source;
+    // when the whole source is ASCII every value is built by the Latin-1 path, a copy without decoding
+    private boolean ascii;
+    // the failure tags of the typed values that were not numbers, only used when saving into a target
+    private String[] failedConversions;
+    private int failedConversionCount;
+
+    ValueResolver(final int fieldCount) {
+        this.offsets = new int[fieldCount * 2];
+        this.source = EMPTY_SOURCE;
+        this.ascii = true;
+    }
 
-    ValueResolver(final byte[] source, final ValueRef[] fieldValues) {
+    void reset(final byte[] source, final int begin, final int end) {
         this.source = source;
-        this.fieldValues = fieldValues;
+        this.ascii = Delimiter.LOCATORS.isAscii(source, begin, end);
+    }
+
+    void release() {
+        this.source = EMPTY_SOURCE;
+        this.ascii = true;
+        this.failedConversionCount = 0;
+    }
+
+    void set(final int fieldId, final int position, final int length) {
+        offsets[fieldId << 1] = position;
+        offsets[(fieldId << 1) + 1] = length;
     }
 
     public String get(final int fieldId) {
-        return fieldValues[fieldId].extract(source);
+        final int position = offsets[fieldId << 1];
+        final int length = offsets[(fieldId << 1) + 1];
+        // only a value that holds high bytes needs to go through the UTF-8 decoder
+        if (ascii || Delimiter.LOCATORS.isAscii(source, position, position + length)) {
+            return new String(source, position, length, StandardCharsets.ISO_8859_1);
+        }
+        return new String(source, position, length, StandardCharsets.UTF_8);
+    }
+
+    /*
+        A Ruby String that holds a copy of the value bytes, valid UTF-8 is not decoded or encoded on the way to the Event.
+        Invalid UTF-8 is decoded with replacement characters like get() does.
+     */
+    public RubyString getRubyString(final int fieldId) {
+        final int position = offsets[fieldId << 1];
+        final int length = offsets[(fieldId << 1) + 1];
+        return newRubyString(new ByteList(source, position, length, UTF8Encoding.INSTANCE, true), ascii);
     }
 
-    public String getOtherByName(final String name, final int notFieldId) {
-        int found = -1;
-        for(int i = 0; i < fieldValues.length; i++) {
-            final ValueRef ref = fieldValues[i];
-            if (i != notFieldId && ref != null && name.contentEquals(ref.getFieldName())) {
-                found = i;
-                break;
+    /*
+        A Ruby String of head then each join and value of an append group, in one buffer sized up front.
+        With no head the first value has no join before it.
+     */
+    public RubyString joinRubyString(final ByteList head, final byte[][] joins, final int[] fieldIds) {
+        int size = head == null ? 0 : head.realSize();
+        for (int i = 0; i < fieldIds.length; i++) {
+            if (head != null || i > 0) {
+                size += joins[i].length;
             }
+            size += offsets[(fieldIds[i] << 1) + 1];
+        }
+        final ByteList bytes = new ByteList(size);
+        bytes.setEncoding(UTF8Encoding.INSTANCE);
+        if (head != null) {
+            bytes.append(head);
+        }
+        for (int i = 0; i < fieldIds.length; i++) {
+            if (head != null || i > 0) {
+                bytes.append(joins[i]);
+            }
+            bytes.append(source, offsets[fieldIds[i] << 1], offsets[(fieldIds[i] << 1) + 1]);
+        }
+        // only the values of an ASCII source are known to be ASCII
+        return newRubyString(bytes, ascii && head == null);
+    }
+
+    // the value of a typed field parsed straight from the source bytes, null when it is not a number
+    public Object parse(final int fieldId, final Converters datatype) {
+        return datatype.parse(source, offsets[fieldId << 1], offsets[(fieldId << 1) + 1]);
+    }
+
+    // a typed value that was saved into a target as text, its tag is put on the event once the target is set
+    public void conversionFailed(final String tag) {
+        if (failedConversions == null) {
+            failedConversions = new String[4];
+        } else if (failedConversionCount == failedConversions.length) {
+            failedConversions = Arrays.copyOf(failedConversions, failedConversionCount * 2);
+        }
+        failedConversions[failedConversionCount++] = tag;
+    }
+
+    void tagFailedConversions(final Event event) {
+        for (int idx = 0; idx < failedConversionCount; idx++) {
+            event.tag(failedConversions[idx]);
+        }
+    }
+
+    private static RubyString newRubyString(final ByteList bytes, final boolean knownAscii) {
+        if (knownAscii) {
+            final RubyString value = RubyString.newString(RubyUtil.RUBY, bytes);
+            // spare JRuby a scan of the bytes when they are known to be ASCII
+            value.setCodeRange(StringSupport.CR_7BIT);
+            return value;
         }
-        if (found >= 0) {
-            return get(found);
+        final int codeRange = StringSupport.codeRangeScan(UTF8Encoding.INSTANCE, bytes);
+        if (codeRange == StringSupport.CR_BROKEN) {
+            // a value cut inside a character, or a source that is not UTF-8
+            return RubyString.newString(RubyUtil.RUBY,
+                    new String(bytes.unsafeBytes(), bytes.begin(), bytes.realSize(), StandardCharsets.UTF_8));
         }
-        return "";
+        final RubyString value = RubyString.newString(RubyUtil.RUBY, bytes);
+        value.setCodeRange(codeRange);
+        return value;
     }
 }
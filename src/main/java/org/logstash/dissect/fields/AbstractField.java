@@ -1,7 +1,10 @@
 package org.logstash.dissect.fields;
 
+import org.logstash.FieldReference;
 import org.logstash.dissect.Delimiter;
 
+import java.nio.charset.StandardCharsets;
+
 public abstract class AbstractField implements Field, Comparable<Field> {
     /*
         These ordinal constants establish the saveable field sort order.
@@ -19,6 +22,14 @@ public abstract class AbstractField implements Field, Comparable<Field> {
     private final String name;
     private final String suffix;
     private final Integer id;
+    private final int width;
+    private final boolean spanning;
+    private final boolean greedy;
+    private final byte[] joinBytes;
+    // resolved once for the fields that are saved, null for skip fields
+    private final FieldReference reference;
+    // the interned key in a target object, ConvertedMap compares its keys by identity
+    private final String targetKey;
 
     AbstractField(final String name, final String suffix, final int ord) {
         ordinal = ord;
@@ -27,6 +38,12 @@ public abstract class AbstractField implements Field, Comparable<Field> {
         previous = null;
         next = null;
         id = 0;
+        width = NO_WIDTH;
+        spanning = false;
+        greedy = false;
+        joinBytes = joinString().getBytes(StandardCharsets.UTF_8);
+        reference = ord == SKIP_ORDINAL_LOWEST ? null : compileReference(name);
+        targetKey = targetKeyOf(reference);
     }
 
     AbstractField(final int id, final String name, final String suffix, final int ordinal, final Delimiter previous, final Delimiter next) {
@@ -35,10 +52,28 @@ public abstract class AbstractField implements Field, Comparable<Field> {
         this.ordinal = ordinal;
         this.previous = previous;
         this.next = next;
-        if (this.next != null) {
-            this.next.setGreedy(this.suffix.contains(GREEDY_SUFFIX));
-        }
         this.id = id;
+        this.width = Field.extractWidth(this.suffix);
+        this.spanning = this.suffix.contains(SPANNING_SUFFIX);
+        this.greedy = this.suffix.contains(GREEDY_SUFFIX);
+        this.joinBytes = joinString().getBytes(StandardCharsets.UTF_8);
+        this.reference = ordinal == SKIP_ORDINAL_LOWEST ? null : compileReference(name);
+        this.targetKey = targetKeyOf(this.reference);
+    }
+
+    private static FieldReference compileReference(final String name) {
+        try {
+            return FieldReference.from(name);
+        } catch (final RuntimeException e) {
+            throw new InvalidFieldException(String.format("Field name is not a valid field reference: %s", name));
+        }
+    }
+
+    private static String targetKeyOf(final FieldReference reference) {
+        if (reference == null || reference.getPath().length > 0) {
+            return null;
+        }
+        return reference.getKey().intern();
     }
 
     @Override
@@ -71,13 +106,46 @@ public abstract class AbstractField implements Field, Comparable<Field> {
         return ordinal;
     }
 
+    final FieldReference reference() {
+        return reference;
+    }
+
+    @Override
+    public final String targetKey() {
+        return targetKey;
+    }
+
+    @Override
+    public final int width() {
+        return width;
+    }
+
+    @Override
+    public final boolean spanning() {
+        return spanning;
+    }
+
+    @Override
+    public final boolean greedy() {
+        return greedy;
+    }
+
+    final String suffix() {
+        return suffix;
+    }
+
     final String joinString() {
-        if (previous == null || previous.size() == 0) {
+        // a class delimiter has no single text to join with
+        if (previous == null || previous.size() == 0 || previous.isByteClass()) {
             return " ";
         }
         return previous.getDelimiter();
     }
 
+    final byte[] joinBytes() {
+        return joinBytes;
+    }
+
     @Override
     public final Delimiter nextDelimiter() {
         return next;
@@ -92,6 +160,7 @@ public abstract class AbstractField implements Field, Comparable<Field> {
         return className + '{' +
                 "name=" + this.name() +
                 ", ordinal=" + this.ordinal() +
+                ", width=" + this.width() +
                 ", previous=" + this.previous +
                 ", next=" + this.next +
                 '}';
@@ -1,22 +1,50 @@
 package org.logstash.dissect.fields;
 
+import org.jruby.RubyString;
+import org.jruby.util.ByteList;
+import org.logstash.ConvertedMap;
 import org.logstash.Event;
+import org.logstash.FieldReference;
+import org.logstash.Javafier;
 import org.logstash.dissect.Delimiter;
 import org.logstash.dissect.ValueResolver;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 
 public final class AppendField extends AbstractField {
+    // the fields of the append group joined by this field, only this field unless it was made by withFragments
+    private final int[] fragmentIds;
+    private final byte[][] fragmentJoins;
+    private final String[] fragmentJoinStrings;
 
     private AppendField(final int id, final String name, final String suffix, final int ord, final Delimiter previous, final Delimiter next) {
         super(id, name, suffix, ord, previous, next);
+        fragmentIds = new int[]{id};
+        fragmentJoins = new byte[][]{joinBytes()};
+        fragmentJoinStrings = new String[]{joinString()};
+    }
+
+    private AppendField(final AppendField first, final List<AppendField> fragments) {
+        super(first.id(), first.name(), first.suffix(), first.ordinal(), first.previousDelimiter(), first.nextDelimiter());
+        final int size = fragments.size();
+        fragmentIds = new int[size];
+        fragmentJoins = new byte[size][];
+        fragmentJoinStrings = new String[size];
+        for (int i = 0; i < size; i++) {
+            final AppendField fragment = fragments.get(i);
+            fragmentIds[i] = fragment.id();
+            fragmentJoins[i] = fragment.joinBytes();
+            fragmentJoinStrings[i] = fragment.joinString();
+        }
     }
 
     public static Field create(final int id, final String name, final String suffix, final Delimiter previous, final Delimiter next) {
         final Matcher m = ORDINAL_REGEX.matcher(suffix);
         if (m.find()) {
-            return new AppendField(id, name, suffix, APPEND_ORDINAL_BASE + Integer.parseInt(m.group()), previous, next);
+            return new AppendField(id, name, suffix, APPEND_ORDINAL_BASE + Integer.parseInt(m.group(1)), previous, next);
         } else {
             return new AppendField(id, name, suffix, APPEND_ORDINAL_BASE, previous, next);
         }
@@ -27,24 +55,54 @@ public final class AppendField extends AbstractField {
         return true;
     }
 
+    /*
+        A copy of this field that is the first of its append group, the fragments are in ordinal order.
+        The whole group is joined and saved in one step by the copy, the others are not saved on their own.
+     */
+    public AppendField withFragments(final List<AppendField> fragments) {
+        return new AppendField(this, fragments);
+    }
+
     @Override
     public void append(final Map<String, Object> keyValueMap, final ValueResolver values) {
-        if (keyValueMap.containsKey(this.name())) {
-            final Object old = keyValueMap.get(this.name());
-            keyValueMap.put(this.name(), old.toString() + joinString() + values.get(this.id()));
-        } else {
-            keyValueMap.put(this.name(), values.get(this.id()));
+        final Object old = keyValueMap.get(this.name());
+        final boolean hasOld = old != null || keyValueMap.containsKey(this.name());
+        final StringBuilder joined = new StringBuilder();
+        if (hasOld) {
+            joined.append(old);
+        }
+        for (int i = 0; i < fragmentIds.length; i++) {
+            if (hasOld || i > 0) {
+                joined.append(fragmentJoinStrings[i]);
+            }
+            joined.append(values.get(fragmentIds[i]));
         }
+        keyValueMap.put(this.name(), joined.toString());
     }
 
     @Override
     public void append(final Event event, final ValueResolver values) {
-        if (event.includes(this.name())) {
-            final Object old = event.getField(this.name());
-            event.setField(this.name(), old.toString() + joinString() + values.get(this.id()));
-        } else {
-            event.setField(this.name(), values.get(this.id()));
+        // the earlier value is read once and the joined value written once for the whole group
+        final FieldReference reference = this.reference();
+        event.setField(reference, values.joinRubyString(headOf(event.getUnconvertedField(reference)), fragmentJoins, fragmentIds));
+    }
+
+    @Override
+    public void appendTarget(final ConvertedMap target, final ValueResolver values) {
+        final String key = this.targetKey();
+        target.put(key, values.joinRubyString(headOf(target.get(key)), fragmentJoins, fragmentIds));
+    }
+
+    private static ByteList headOf(final Object old) {
+        if (old instanceof RubyString) {
+            // the earlier value is not decoded and the result is not encoded again
+            return ((RubyString) old).getByteList();
+        }
+        if (old != null) {
+            return new ByteList(Javafier.deep(old).toString().getBytes(StandardCharsets.UTF_8), false);
         }
+        // a missing or nil earlier value, the first fragment is the start of the value
+        return null;
     }
 
     @Override
@@ -1,5 +1,6 @@
 package org.logstash.dissect.fields;
 
+import org.logstash.ConvertedMap;
 import org.logstash.Event;
 import org.logstash.dissect.Delimiter;
 import org.logstash.dissect.ValueResolver;
@@ -14,10 +15,14 @@ public interface Field {
     int APPEND_ORDINAL_BASE = 100;
     int INDIRECT_ORDINAL_HIGHER = 1000;
     // int MISSING_ORDINAL_HIGHEST = 100000;
-    Pattern SUFFIX_REGEX = Pattern.compile("(.+?)(/\\d{1,2}|->|/\\d{1,2}->|->/\\d{1,2})?$");
-    Pattern SUFFIX_ONLY_REGEX = Pattern.compile("^(/\\d{1,2}|->|/\\d{1,2}->|->/\\d{1,2})?$");
-    Pattern ORDINAL_REGEX = Pattern.compile("\\d+");
+    // suffixes are any combination of an order modifier `/digits`, a width `#digits`, the greedy `->` and the spanning `*`
+    Pattern SUFFIX_REGEX = Pattern.compile("(.+?)((?:/\\d{1,2}|->|#\\d{1,4}|\\*)*)$");
+    Pattern SUFFIX_ONLY_REGEX = Pattern.compile("^(?:/\\d{1,2}|->|#\\d{1,4}|\\*)*$");
+    Pattern ORDINAL_REGEX = Pattern.compile("/(\\d+)");
+    Pattern WIDTH_REGEX = Pattern.compile("#(\\d+)");
     String GREEDY_SUFFIX = "->";
+    String SPANNING_SUFFIX = "*";
+    int NO_WIDTH = 0;
 
     static String[] extractNameSuffix(final String s) {
         final String[] result = {s, ""};
@@ -35,10 +40,17 @@ public interface Field {
         return result;
     }
 
+    static int extractWidth(final String suffix) {
+        final Matcher matcher = WIDTH_REGEX.matcher(suffix);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : NO_WIDTH;
+    }
+
     void append(Map<String, Object> map, ValueResolver values);
 
     void append(Event event, ValueResolver values);
 
+    void appendTarget(ConvertedMap target, ValueResolver values);
+
     boolean saveable();
 
     Delimiter nextDelimiter();
@@ -47,7 +59,19 @@ public interface Field {
 
     int ordinal();
 
+    // the declared byte width of a fixed width field or NO_WIDTH
+    int width();
+
+    // true when the repeats of the next delimiter after the value are skipped, the '->' suffix
+    boolean greedy();
+
+    // true when the field takes what is left between the fields matched from the left and from the right
+    boolean spanning();
+
     String name();
 
+    // the interned key of the field in a target object, null for skip fields and nested field references
+    String targetKey();
+
     int id();
 }
@@ -1,5 +1,6 @@
 package org.logstash.dissect.fields;
 
+import org.logstash.dissect.Converters;
 import org.logstash.dissect.Delimiter;
 
 /*
@@ -33,6 +34,28 @@ import org.logstash.dissect.Delimiter;
     Hint: use a Skip field if you do not want the indirection key/value stored.
     e.g. for a text of `google: 77.98`, this `%{?a}: %{&a}` will build a key/value of `google => 77.98`.
 
+    Fixed width suffix
+    The value is exactly the declared number of bytes, no delimiter search is done to find its end.
+    The delimiter after the field, if any, must follow the value directly.
+    `%{some_field#8}` - a field of 8 bytes, it combines with the other prefixes and suffixes.
+    e.g. for a text of `20160525ERRdisk full`, this `%{date#8}%{level#3}%{msg}` will build `date => 20160525, level => ERR, msg => disk full`
+
+    Spanning suffix
+    The fields before a spanning field are matched from the left of the text and the fields after it from the right,
+    each searching for the last occurrence of its delimiter, the spanning field takes whatever is left in between.
+    This allows the one field that can contain its own delimiter to be placed anywhere in the mapping.
+    Only one field of a mapping can be spanning and it cannot have a width.
+    `%{some_field*}` - a spanning field.
+    e.g. for a text of `GET /a b/c 200 15`, this `%{verb} %{url*} %{status} %{bytes}` will build `url => /a b/c`
+    Note: after a spanning field a width counts back from where the next field starts.
+
+    Datatype suffix
+    The value of a normal field is saved as an integer or a float, parsed from the source bytes as it is saved.
+    The type follows all the other suffixes, `:int` or `:float`.
+    On the other fields the same text is part of the name, `%{+ts:int}` appends to the `ts:int` key.
+    `%{bytes:int}` - an integer field, `%{took->:float}` - a float field with padding after it.
+    A value that is not a number is saved as text and the event is tagged with `_dataconversionuncoercible_<name>_<type>`.
+
     Note: for append and indirect field the key can refer to a field that already exists in the event before dissection.
     Note: append and indirect cannot be combined. This will fail validation.
     `%{+&something}` - will add a value to the `&something` key, probably not the intended outcome.
@@ -42,14 +65,22 @@ public final class FieldFactory {
     private static final String MIXED_PREFIXES = "Field cannot prefix with both Append and Indirect Prefix (%s): %s";
     private static final String PREFIXED_EMPTY = "Field cannot be a prefix on its own without further text";
     private static final String NAME_EMPTY = "Field cannot be a prefix and a suffix without a name section";
+    private static final String ZERO_WIDTH = "Field width must be greater than zero: %s";
+    private static final String SPANNING_WIDTH = "Field cannot be both spanning and fixed width: %s";
 
     private FieldFactory() {
     }
 
-    public static Field create(final int id, final String field, final Delimiter previous, final Delimiter next) {
+    public static Field create(final int id, final String text, final Delimiter previous, final Delimiter next) {
+        // on a normal field a trailing `:int` or `:float` is the datatype, any other colon is part of the name
+        final boolean normal = !text.isEmpty() && "?+&".indexOf(text.charAt(0)) < 0;
+        final int colon = normal ? text.lastIndexOf(':') : -1;
+        final Converters datatype = colon > 0 ? Converters.select(text.substring(colon + 1)) : Converters.NULL_CONVERTER;
+        final boolean typed = !datatype.isInvalid();
+        final String field = typed ? text.substring(0, colon) : text;
         final String[] nameSuffix;
         if (field.isEmpty() || field.charAt(0) == '?') {
-            nameSuffix = Field.extractNameSuffix(removeLeadingCharIfPresent(field));
+            nameSuffix = extractNameSuffix(removeLeadingCharIfPresent(field));
             return SkipField.create(id, nameSuffix[0], nameSuffix[1], previous, next);
         }
         if (field.startsWith("+&")) {
@@ -64,7 +95,7 @@ public final class FieldFactory {
             if (shorterField.isEmpty()) {
                 throw new InvalidFieldException(PREFIXED_EMPTY);
             }
-            nameSuffix = Field.extractNameSuffix(shorterField);
+            nameSuffix = extractNameSuffix(shorterField);
             if (nameSuffix[0].isEmpty()) {
                 throw new InvalidFieldException(NAME_EMPTY);
             }
@@ -75,16 +106,30 @@ public final class FieldFactory {
             if (shorterField.isEmpty()) {
                 throw new InvalidFieldException(PREFIXED_EMPTY);
             }
-            nameSuffix = Field.extractNameSuffix(shorterField);
+            nameSuffix = extractNameSuffix(shorterField);
             if (nameSuffix[0].isEmpty()) {
                 throw new InvalidFieldException(NAME_EMPTY);
             }
             return IndirectField.create(id, nameSuffix[0], nameSuffix[1], previous, next);
         }
-        nameSuffix = Field.extractNameSuffix(field);
+        nameSuffix = extractNameSuffix(field);
+        if (typed) {
+            return NormalField.create(id, nameSuffix[0], nameSuffix[1], previous, next, datatype, text.substring(colon + 1));
+        }
         return NormalField.create(id, nameSuffix[0], nameSuffix[1], previous, next);
     }
 
+    private static String[] extractNameSuffix(final String field) {
+        final String[] nameSuffix = Field.extractNameSuffix(field);
+        if (nameSuffix[1].contains("#") && Field.extractWidth(nameSuffix[1]) == 0) {
+            throw new InvalidFieldException(String.format(ZERO_WIDTH, field));
+        }
+        if (nameSuffix[1].contains(Field.SPANNING_SUFFIX) && nameSuffix[1].contains("#")) {
+            throw new InvalidFieldException(String.format(SPANNING_WIDTH, field));
+        }
+        return nameSuffix;
+    }
+
     private static String removeLeadingCharIfPresent(final String fieldName) {
         return fieldName.isEmpty() ? fieldName : fieldName.substring(1);
     }
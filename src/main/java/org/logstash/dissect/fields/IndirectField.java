@@ -1,21 +1,59 @@
 package org.logstash.dissect.fields;
 
+import org.logstash.ConvertedMap;
 import org.logstash.Event;
+import org.logstash.Javafier;
 import org.logstash.dissect.Delimiter;
 import org.logstash.dissect.ValueResolver;
 
 import java.util.Map;
 
 public final class IndirectField extends AbstractField {
+    private static final int EXTERNAL_KEY = -1;
+
+    // the id of the field in the same mapping that the key value comes from, or EXTERNAL_KEY
+    private final int keyFieldId;
 
     private IndirectField(final int id, final String name, final String suffix, final Delimiter previous, final Delimiter next) {
+        this(id, name, suffix, previous, next, EXTERNAL_KEY);
+    }
+
+    private IndirectField(final int id, final String name, final String suffix, final Delimiter previous, final Delimiter next, final int keyFieldId) {
         super(id, name, suffix, INDIRECT_ORDINAL_HIGHER, previous, next);
+        this.keyFieldId = keyFieldId;
     }
 
     public static Field create(final int id, final String name, final String suffix, final Delimiter previous, final Delimiter next) {
         return new IndirectField(id, name, suffix, previous, next);
     }
 
+    /*
+        A copy of this field that reads its key from the field of the mapping that holds it, made when the mapping is compiled.
+        The last saveable field with the same name is used as its value is the one written to the output.
+        When no such field is saved the first other skip or indirect field with the name is used, as the lookup by name did before.
+        The joined value of an append group is only known once it is saved, so a key that is
+        appended to is read from the output like the keys of fields outside of the mapping.
+     */
+    public IndirectField withKeyFrom(final Field[] fields) {
+        int saved = EXTERNAL_KEY;
+        int other = EXTERNAL_KEY;
+        for (final Field field : fields) {
+            if (field.id() == this.id() || !name().equals(field.name())) {
+                continue;
+            }
+            if (field instanceof AppendField) {
+                return new IndirectField(id(), name(), suffix(), previousDelimiter(), nextDelimiter(), EXTERNAL_KEY);
+            }
+            if (field.saveable() && !(field instanceof IndirectField)) {
+                saved = field.id();
+            } else if (other == EXTERNAL_KEY) {
+                other = field.id();
+            }
+        }
+        final int found = saved != EXTERNAL_KEY ? saved : other;
+        return new IndirectField(id(), name(), suffix(), previousDelimiter(), nextDelimiter(), found);
+    }
+
     @Override
     public boolean saveable() {
         return true;
@@ -31,26 +69,58 @@ public final class IndirectField extends AbstractField {
 
     @Override
     public void append(final Event event, final ValueResolver values) {
-        final String indirectName = anyValue(name(), event, values);
+        final String indirectName = anyValue(event, values);
         if (!indirectName.isEmpty()) {
-            event.setField(indirectName, values.get(this.id()));
+            event.setField(indirectName, values.getRubyString(this.id()));
         }
     }
 
-    private String anyValue(final String key, final Event event, final ValueResolver values) {
-        if (event.includes(key)) {
-            final Object val = event.getField(key);
-            return String.valueOf(val);
+    @Override
+    public void appendTarget(final ConvertedMap target, final ValueResolver values) {
+        final String indirectName = anyValue(target, values);
+        if (!indirectName.isEmpty()) {
+            // the name comes from the source, it is used as a key of the target as is
+            target.putInterned(indirectName, values.getRubyString(this.id()));
+        }
+    }
+
+    private String anyValue(final Event event, final ValueResolver values) {
+        if (keyFieldId != EXTERNAL_KEY) {
+            return values.get(keyFieldId);
+        }
+        final Object val = event.getUnconvertedField(this.reference());
+        if (val != null) {
+            return String.valueOf(Javafier.deep(val));
+        }
+        if (event.includes(this.reference())) {
+            return "null";
+        }
+        return "";
+    }
+
+    private String anyValue(final ConvertedMap target, final ValueResolver values) {
+        if (keyFieldId != EXTERNAL_KEY) {
+            return values.get(keyFieldId);
+        }
+        final Object val = target.get(this.targetKey());
+        if (val != null) {
+            return String.valueOf(Javafier.deep(val));
         }
-        return values.getOtherByName(key, this.id());
+        if (target.containsKey(this.targetKey())) {
+            return "null";
+        }
+        return "";
     }
 
     private String anyValue(final String key, final Map<String, Object> map, final ValueResolver values) {
+        if (keyFieldId != EXTERNAL_KEY) {
+            return values.get(keyFieldId);
+        }
         if (map.containsKey(key)) {
             final Object val = map.get(key);
             return String.valueOf(val);
         }
-        return values.getOtherByName(key, this.id());
+        return "";
     }
 
     @Override
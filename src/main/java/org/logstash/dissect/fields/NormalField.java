@@ -1,22 +1,45 @@
 package org.logstash.dissect.fields;
 
+import org.logstash.ConvertedMap;
 import org.logstash.Event;
+import org.logstash.Valuefier;
+import org.logstash.dissect.Converters;
 import org.logstash.dissect.Delimiter;
 import org.logstash.dissect.ValueResolver;
 
 import java.util.Map;
 
 public final class NormalField extends AbstractField {
+    // null when the value is saved as text
+    private final Converters datatype;
+    private final String uncoercibleTag;
+
     public NormalField(final String name, final String suffix, final int ordinal) {
         super(name, suffix, ordinal);
+        datatype = null;
+        uncoercibleTag = null;
     }
 
-    private NormalField(final int id, final String name, final String suffix, final Delimiter previous, final Delimiter next) {
+    private NormalField(final int id, final String name, final String suffix, final Delimiter previous, final Delimiter next,
+                        final Converters datatype, final String type) {
         super(id, name, suffix, NORMAL_ORDINAL_LOWER, previous, next);
+        this.datatype = datatype;
+        this.uncoercibleTag = datatype == null ? null : String.format("_dataconversionuncoercible_%s_%s", name, type);
     }
 
     public static Field create(final int id, final String name, final String suffix, final Delimiter previous, final Delimiter next) {
-        return new NormalField(id, name, suffix, previous, next);
+        return new NormalField(id, name, suffix, previous, next, null, null);
+    }
+
+    // a field of the `%{name:int}` form, the value is parsed from the source bytes as it is saved
+    public static Field create(final int id, final String name, final String suffix, final Delimiter previous, final Delimiter next,
+                               final Converters datatype, final String type) {
+        return new NormalField(id, name, suffix, previous, next, datatype, type);
+    }
+
+    // the type of the value, null when it is saved as text
+    public Converters datatype() {
+        return datatype;
     }
 
     @Override
@@ -26,12 +49,39 @@ public final class NormalField extends AbstractField {
 
     @Override
     public void append(final Map<String, Object> keyValueMap, final ValueResolver values) {
-        keyValueMap.put(this.name(), values.get(this.id()));
+        final Object value = datatype == null ? null : values.parse(this.id(), datatype);
+        keyValueMap.put(this.name(), value == null ? values.get(this.id()) : value);
     }
 
     @Override
     public void append(final Event event, final ValueResolver values) {
-        event.setField(this.name(), values.get(this.id()));
+        if (datatype == null) {
+            event.setField(this.reference(), values.getRubyString(this.id()));
+            return;
+        }
+        final Object value = values.parse(this.id(), datatype);
+        if (value == null) {
+            // as with convert_datatype, a value that is not a number is kept as text and the event is tagged
+            event.setField(this.reference(), values.getRubyString(this.id()));
+            event.tag(uncoercibleTag);
+            return;
+        }
+        event.setField(this.reference(), value);
+    }
+
+    @Override
+    public void appendTarget(final ConvertedMap target, final ValueResolver values) {
+        if (datatype == null) {
+            target.put(this.targetKey(), values.getRubyString(this.id()));
+            return;
+        }
+        final Object value = values.parse(this.id(), datatype);
+        if (value == null) {
+            target.put(this.targetKey(), values.getRubyString(this.id()));
+            values.conversionFailed(uncoercibleTag);
+            return;
+        }
+        target.put(this.targetKey(), Valuefier.convert(value));
     }
 
     @Override
@@ -1,5 +1,6 @@
 package org.logstash.dissect.fields;
 
+import org.logstash.ConvertedMap;
 import org.logstash.Event;
 import org.logstash.dissect.Delimiter;
 import org.logstash.dissect.ValueResolver;
@@ -25,6 +26,10 @@ public final class SkipField extends AbstractField {
     public void append(final Map<String, Object> keyValueMap, final ValueResolver values) {
     }
 
+    @Override
+    public void appendTarget(final ConvertedMap target, final ValueResolver values) {
+    }
+
     @Override
     public boolean saveable() {
         return false;
@@ -0,0 +1,97 @@
+package org.logstash.dissect.search;
+
+import java.nio.charset.StandardCharsets;
+
+/*
+    Locates any one byte of a class of bytes, e.g. any whitespace.
+    Membership is a lookup in a 256 entry table built when the mapping is compiled,
+    so each byte of the haystack costs one array read whatever the size of the class.
+    The needle is not used, a class delimiter always matches exactly one byte.
+ */
+public class ByteClassLocator implements DelimiterLocator {
+    private static final int ALPHABET_SIZE = 256;
+    private static final String UNKNOWN_CLASS = "Unknown delimiter class: [%s], expected [:space:], [:blank:], [:digit:] or a set of ASCII characters";
+
+    private final boolean[] members;
+
+    private ByteClassLocator(final boolean[] members) {
+        this.members = members;
+    }
+
+    /**
+     * Build a locator from the text between the brackets of a class delimiter.
+     *
+     * @param spec one of the named classes `:space:`, `:blank:` or `:digit:` or a set of ASCII characters
+     * @return a locator for any byte of the class
+     */
+    public static ByteClassLocator create(final String spec) {
+        final boolean[] members = new boolean[ALPHABET_SIZE];
+        switch (spec) {
+            case ":space:":
+                add(members, " \t\n\r\f\u000B");
+                break;
+            case ":blank:":
+                add(members, " \t");
+                break;
+            case ":digit:":
+                add(members, "0123456789");
+                break;
+            default:
+                if (spec.isEmpty() || (spec.length() > 2 && spec.startsWith(":") && spec.endsWith(":"))) {
+                    throw new IllegalArgumentException(String.format(UNKNOWN_CLASS, spec));
+                }
+                for (int i = 0; i < spec.length(); i++) {
+                    if (spec.charAt(i) > 0x7F) {
+                        // a multi-byte character cannot be matched one byte at a time
+                        throw new IllegalArgumentException(String.format(UNKNOWN_CLASS, spec));
+                    }
+                }
+                add(members, spec);
+        }
+        return new ByteClassLocator(members);
+    }
+
+    private static void add(final boolean[] members, final String chars) {
+        for (final byte b : chars.getBytes(StandardCharsets.US_ASCII)) {
+            members[b & 0xFF] = true;
+        }
+    }
+
+    public final boolean contains(final byte b) {
+        return members[b & 0xFF];
+    }
+
+    @Override
+    public final int indexOf(final byte[] needle, final byte[] haystack, final int offset, final int end) {
+        for (int n = offset; n < end; n++) {
+            if (members[haystack[n] & 0xFF]) {
+                return n;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public final boolean isAt(final byte[] needle, final byte[] haystack, final int offset, final int end) {
+        return offset >= 0 && offset < end && members[haystack[offset] & 0xFF];
+    }
+
+    @Override
+    public final int skipRepeats(final byte[] needle, final byte[] haystack, final int offset, final int end) {
+        int n = offset;
+        while (n < end && members[haystack[n] & 0xFF]) {
+            n++;
+        }
+        return n;
+    }
+
+    @Override
+    public final int lastIndexOf(final byte[] needle, final byte[] haystack, final int from, final int lowest) {
+        for (int n = from; n >= lowest; n--) {
+            if (members[haystack[n] & 0xFF]) {
+                return n;
+            }
+        }
+        return -1;
+    }
+}
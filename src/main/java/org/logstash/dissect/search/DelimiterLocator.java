@@ -1,5 +1,7 @@
 package org.logstash.dissect.search;
 
+import java.util.Arrays;
+
 public interface DelimiterLocator {
     /**
      * Search for a needle in a haystack.
@@ -11,5 +13,94 @@ public interface DelimiterLocator {
      * @param offset   a point inside the haystack to start the search from
      * @return the position where the first byte of the needle was found
      */
-    int indexOf(byte[] needle, byte[] haystack, int offset);
+    default int indexOf(final byte[] needle, final byte[] haystack, final int offset) {
+        return indexOf(needle, haystack, offset, haystack.length);
+    }
+
+    /**
+     * Search for a needle in the part of a haystack that ends at end.
+     * The haystack may be a shared buffer, e.g. the bytes of a Ruby String, no byte at or after end is read.
+     *
+     * @param needle   an array of bytes that represents the text being located
+     * @param haystack an array of bytes that represents the text being searched in
+     * @param offset   a point inside the haystack to start the search from
+     * @param end      the position just after the last haystack byte that belongs to the text
+     * @return the position where the first byte of the needle was found
+     */
+    int indexOf(byte[] needle, byte[] haystack, int offset, int end);
+
+    /**
+     * Check for a needle at an exact position in the part of a haystack that ends at end.
+     * Note: an empty needle is always there as long as offset is inside the text or at its end.
+     *
+     * @param needle   an array of bytes that represents the text being checked for
+     * @param haystack an array of bytes that represents the text being checked in
+     * @param offset   the position in the haystack where the first needle byte must be
+     * @param end      the position just after the last haystack byte that belongs to the text
+     * @return true if the needle bytes are in the haystack at offset
+     */
+    default boolean isAt(final byte[] needle, final byte[] haystack, final int offset, final int end) {
+        final int needleEnd = offset + needle.length;
+        return offset >= 0 && needleEnd <= end && Arrays.equals(haystack, offset, needleEnd, needle, 0, needle.length);
+    }
+
+    /**
+     * Skip over consecutive copies of a needle, used for the greedy '->' suffix.
+     * Returns the position just after the last of the needles that follow each other from offset.
+     * Note: if the needle is not found exactly at offset then offset is returned.
+     *
+     * @param needle   an array of bytes that represents the repeated text
+     * @param haystack an array of bytes that represents the text being skipped in
+     * @param offset   a point inside the haystack where the run of needles may start
+     * @return the position of the first byte after the run of needles
+     */
+    default int skipRepeats(final byte[] needle, final byte[] haystack, final int offset) {
+        return skipRepeats(needle, haystack, offset, haystack.length);
+    }
+
+    /**
+     * Skip over consecutive copies of a needle in the part of a haystack that ends at end.
+     *
+     * @param needle   an array of bytes that represents the repeated text
+     * @param haystack an array of bytes that represents the text being skipped in
+     * @param offset   a point inside the haystack where the run of needles may start
+     * @param end      the position just after the last haystack byte that belongs to the text
+     * @return the position of the first byte after the run of needles
+     */
+    default int skipRepeats(final byte[] needle, final byte[] haystack, final int offset, final int end) {
+        final int size = needle.length;
+        if (size == 0) {
+            return offset;
+        }
+        int n = offset;
+        while (n + size <= end && Arrays.mismatch(haystack, n, n + size, needle, 0, size) < 0) {
+            n += size;
+        }
+        return n;
+    }
+
+    /**
+     * Search backwards for a needle in a haystack, used for the fields after a spanning '*' field.
+     * Returns the integer position of the last needle that starts at or before from and at or after lowest.
+     * Note: an empty needle is never found.
+     *
+     * @param needle   an array of bytes that represents the text being located
+     * @param haystack an array of bytes that represents the text being searched in
+     * @param from     the last position in the haystack where the needle may start, the needle must end inside the text
+     * @param lowest   the first position in the haystack where the needle may start
+     * @return the position where the first byte of the needle was found or -1
+     */
+    default int lastIndexOf(final byte[] needle, final byte[] haystack, final int from, final int lowest) {
+        final int size = needle.length;
+        if (size == 0) {
+            return -1;
+        }
+        final byte first = needle[0];
+        for (int n = from; n >= lowest; n--) {
+            if (haystack[n] == first && Arrays.mismatch(haystack, n, n + size, needle, 0, size) < 0) {
+                return n;
+            }
+        }
+        return -1;
+    }
 }
@@ -7,8 +7,8 @@ public class DoubleByteLocator implements DelimiterLocator {
     }
 
     @Override
-    public final int indexOf(final byte[] needle, final byte[] haystack, final int offset) {
-        for (int n = offset; n < haystack.length - 1; n++) {
+    public final int indexOf(final byte[] needle, final byte[] haystack, final int offset, final int end) {
+        for (int n = offset; n < end - 1; n++) {
             if (haystack[n] == needle[0] && haystack[n + 1] == needle[1]) {
                 return n;
             }
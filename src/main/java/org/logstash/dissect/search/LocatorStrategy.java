@@ -0,0 +1,93 @@
+package org.logstash.dissect.search;
+
+/*
+    The families of locators available for single and double byte delimiters,
+    the same family checks whether the source bytes are all ASCII.
+    VECTOR needs the JVM to be started with `--add-modules jdk.incubator.vector`,
+    SWAR works on any JVM and SCALAR is the plain byte by byte loop.
+ */
+public enum LocatorStrategy {
+    VECTOR {
+        @Override
+        public DelimiterLocator singleByte() {
+            return VectorSingleByteLocator.INSTANCE;
+        }
+
+        @Override
+        public DelimiterLocator doubleByte() {
+            return VectorDoubleByteLocator.INSTANCE;
+        }
+
+        @Override
+        public boolean isAscii(final byte[] bytes, final int begin, final int end) {
+            return VectorAscii.isAscii(bytes, begin, end);
+        }
+    },
+    SWAR {
+        @Override
+        public DelimiterLocator singleByte() {
+            return SwarSingleByteLocator.INSTANCE;
+        }
+
+        @Override
+        public DelimiterLocator doubleByte() {
+            return SwarDoubleByteLocator.INSTANCE;
+        }
+
+        @Override
+        public boolean isAscii(final byte[] bytes, final int begin, final int end) {
+            return Swar.isAscii(bytes, begin, end);
+        }
+    },
+    SCALAR {
+        @Override
+        public DelimiterLocator singleByte() {
+            return SingleByteLocator.INSTANCE;
+        }
+
+        @Override
+        public DelimiterLocator doubleByte() {
+            return DoubleByteLocator.INSTANCE;
+        }
+
+        @Override
+        public boolean isAscii(final byte[] bytes, final int begin, final int end) {
+            for (int n = begin; n < end; n++) {
+                if (bytes[n] < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    };
+
+    public static final String PROPERTY = "org.logstash.dissect.locator";
+
+    public abstract DelimiterLocator singleByte();
+
+    public abstract DelimiterLocator doubleByte();
+
+    // true when no byte from begin up to end is above 0x7F
+    public abstract boolean isAscii(byte[] bytes, int begin, int end);
+
+    public static LocatorStrategy best() {
+        return VectorSupport.isAvailable() ? VECTOR : SWAR;
+    }
+
+    // an unknown name or VECTOR without the incubator module falls back to the best available strategy
+    public static LocatorStrategy select(final String name) {
+        LocatorStrategy result = best();
+        if (name == null) {
+            return result;
+        }
+        try {
+            result = valueOf(name.toUpperCase());
+        } catch (final IllegalArgumentException e) {
+            // do nothing
+        }
+        if (result == VECTOR && !VectorSupport.isAvailable()) {
+            result = SWAR;
+        }
+        return result;
+    }
+}
@@ -1,15 +1,36 @@
 package org.logstash.dissect.search;
 
+import java.util.Arrays;
+
+/*
+    Boyer-Moore-Horspool search for delimiters of three or more bytes.
+    The skip table is built once per delimiter when the mapping is compiled, so an instance
+    is bound to the needle it was created with and must only be given that needle.
+    Each window is tested on its last byte first, the rest is verified with Arrays.mismatch
+    and on a mismatch the window moves by the skip distance of its last byte.
+ */
 public class MultiByteLocator implements DelimiterLocator {
-    public static final MultiByteLocator INSTANCE = new MultiByteLocator();
+    private static final int ALPHABET_SIZE = 256;
+    private final int[] skips;
 
-    private MultiByteLocator() {
+    private MultiByteLocator(final int[] skips) {
+        this.skips = skips;
+    }
+
+    public static MultiByteLocator create(final byte[] needle) {
+        final int last = needle.length - 1;
+        final int[] skips = new int[ALPHABET_SIZE];
+        Arrays.fill(skips, needle.length);
+        for (int k = 0; k < last; k++) {
+            skips[needle[k] & 0xFF] = last - k;
+        }
+        return new MultiByteLocator(skips);
     }
 
     @Override
-    public final int indexOf(final byte[] needle, final byte[] haystack, final int offset) {
+    public final int indexOf(final byte[] needle, final byte[] haystack, final int offset, final int end) {
         int localOffset = offset;
-        final int sourceCount = haystack.length;
+        final int sourceCount = end;
 
         if (localOffset >= sourceCount) {
             return -1;
@@ -18,31 +39,18 @@ public class MultiByteLocator implements DelimiterLocator {
             localOffset = 0;
         }
 
-        final byte first = needle[0];
+        final int last = needle.length - 1;
+        final byte lastByte = needle[last];
         final int max = sourceCount - needle.length;
 
-        for (int i = localOffset; i <= max; i++) {
-            /* Look for first byte. */
-            if (haystack[i] != first) {
-                while (++i <= max && haystack[i] != first) {
-                    // do nothing
-                }
-            }
-
-            /* Found first byte, now look at the rest of v2 */
-            if (i <= max) {
-                int j = i + 1;
-                final int end = j + needle.length - 1;
-                for (int k = 1; j < end && haystack[j]
-                        == needle[k]; j++, k++) {
-                    // do nothing
-                }
-
-                if (j == end) {
-                    /* Found whole pattern. */
-                    return i;
-                }
+        int i = localOffset;
+        while (i <= max) {
+            final byte current = haystack[i + last];
+            if (current == lastByte && Arrays.mismatch(haystack, i, i + last, needle, 0, last) < 0) {
+                /* Found whole pattern. */
+                return i;
             }
+            i += skips[current & 0xFF];
         }
         return -1;
     }
@@ -7,12 +7,21 @@ public class SingleByteLocator implements DelimiterLocator {
     }
 
     @Override
-    public final int indexOf(final byte[] needle, final byte[] haystack, final int offset) {
-        for (int n = offset; n < haystack.length; n++) {
+    public final int indexOf(final byte[] needle, final byte[] haystack, final int offset, final int end) {
+        for (int n = offset; n < end; n++) {
             if (haystack[n] == needle[0]) {
                 return n;
             }
         }
         return -1;
     }
+
+    @Override
+    public final int skipRepeats(final byte[] needle, final byte[] haystack, final int offset, final int end) {
+        int n = offset;
+        while (n < end && haystack[n] == needle[0]) {
+            n++;
+        }
+        return n;
+    }
 }
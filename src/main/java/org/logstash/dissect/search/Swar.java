@@ -0,0 +1,67 @@
+package org.logstash.dissect.search;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/*
+    SIMD within a register helpers, eight haystack bytes are handled as one long.
+    Little endian reads put the lowest haystack index in the lowest byte of the long,
+    so the trailing zero count of a match mask gives the first matching index.
+ */
+final class Swar {
+    static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOW_SEVEN_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private Swar() {
+    }
+
+    static long read(final byte[] haystack, final int index) {
+        return (long) LONGS.get(haystack, index);
+    }
+
+    static long broadcast(final byte b) {
+        return (b & 0xFFL) * ONES;
+    }
+
+    /*
+        Sets the high bit of every zero byte in word and clears all other bits.
+        Unlike the shorter (word - ONES) & ~word & HIGH_BITS form there are no false
+        positives above a zero byte, so two masks can be combined with a bitwise and.
+     */
+    static long zeroBytes(final long word) {
+        final long t = (word & LOW_SEVEN_BITS) + LOW_SEVEN_BITS;
+        return ~(t | word | LOW_SEVEN_BITS);
+    }
+
+    // sets the high bit of every non zero byte in word and clears all other bits
+    static long nonZeroBytes(final long word) {
+        final long t = (word & LOW_SEVEN_BITS) + LOW_SEVEN_BITS;
+        return (t | word) & ~LOW_SEVEN_BITS;
+    }
+
+    static int firstIndex(final long mask) {
+        return Long.numberOfTrailingZeros(mask) >>> 3;
+    }
+
+    // true when no byte from begin up to end has its high bit set
+    static boolean isAscii(final byte[] bytes, final int begin, final int end) {
+        final int upper = end - Long.BYTES;
+        long seen = 0;
+        int n = begin;
+        for (; n <= upper; n += Long.BYTES) {
+            seen |= read(bytes, n);
+        }
+        if ((seen & HIGH_BITS) != 0) {
+            return false;
+        }
+        for (; n < end; n++) {
+            if (bytes[n] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
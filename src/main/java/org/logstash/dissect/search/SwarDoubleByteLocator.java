@@ -0,0 +1,55 @@
+package org.logstash.dissect.search;
+
+/*
+    Reads eight haystack bytes per step and the same eight bytes shifted by one,
+    a byte is a match when it equals the first needle byte and its neighbour equals the second.
+ */
+public class SwarDoubleByteLocator implements DelimiterLocator {
+    public static final SwarDoubleByteLocator INSTANCE = new SwarDoubleByteLocator();
+
+    private SwarDoubleByteLocator() {
+    }
+
+    @Override
+    public final int indexOf(final byte[] needle, final byte[] haystack, final int offset, final int end) {
+        final byte first = needle[0];
+        final byte second = needle[1];
+        final long firstPattern = Swar.broadcast(first);
+        final long secondPattern = Swar.broadcast(second);
+        // the shifted read takes one byte more
+        final int upper = end - Long.BYTES - 1;
+        int n = offset;
+        for (; n <= upper; n += Long.BYTES) {
+            final long found = Swar.zeroBytes(Swar.read(haystack, n) ^ firstPattern)
+                    & Swar.zeroBytes(Swar.read(haystack, n + 1) ^ secondPattern);
+            if (found != 0) {
+                return n + Swar.firstIndex(found);
+            }
+        }
+        for (; n < end - 1; n++) {
+            if (haystack[n] == first && haystack[n + 1] == second) {
+                return n;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public final int skipRepeats(final byte[] needle, final byte[] haystack, final int offset, final int end) {
+        // a run of two byte needles is the needle pair repeated four times per word
+        final long pattern = ((needle[0] & 0xFFL) | (needle[1] & 0xFFL) << 8) * 0x0001000100010001L;
+        final int upper = end - Long.BYTES;
+        int n = offset;
+        for (; n <= upper; n += Long.BYTES) {
+            final long different = Swar.nonZeroBytes(Swar.read(haystack, n) ^ pattern);
+            if (different != 0) {
+                // only whole needles count, round down to the start of the broken pair
+                return n + (Swar.firstIndex(different) & ~1);
+            }
+        }
+        while (n + 1 < end && haystack[n] == needle[0] && haystack[n + 1] == needle[1]) {
+            n += 2;
+        }
+        return n;
+    }
+}
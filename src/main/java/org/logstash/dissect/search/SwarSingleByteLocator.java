@@ -0,0 +1,50 @@
+package org.logstash.dissect.search;
+
+/*
+    Reads eight haystack bytes per step and tests them all against the needle byte at once.
+ */
+public class SwarSingleByteLocator implements DelimiterLocator {
+    public static final SwarSingleByteLocator INSTANCE = new SwarSingleByteLocator();
+
+    private SwarSingleByteLocator() {
+    }
+
+    @Override
+    public final int indexOf(final byte[] needle, final byte[] haystack, final int offset, final int end) {
+        final byte first = needle[0];
+        final long pattern = Swar.broadcast(first);
+        final int upper = end - Long.BYTES;
+        int n = offset;
+        for (; n <= upper; n += Long.BYTES) {
+            final long found = Swar.zeroBytes(Swar.read(haystack, n) ^ pattern);
+            if (found != 0) {
+                return n + Swar.firstIndex(found);
+            }
+        }
+        // the tail is shorter than one word
+        for (; n < end; n++) {
+            if (haystack[n] == first) {
+                return n;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public final int skipRepeats(final byte[] needle, final byte[] haystack, final int offset, final int end) {
+        final byte first = needle[0];
+        final long pattern = Swar.broadcast(first);
+        final int upper = end - Long.BYTES;
+        int n = offset;
+        for (; n <= upper; n += Long.BYTES) {
+            final long different = Swar.nonZeroBytes(Swar.read(haystack, n) ^ pattern);
+            if (different != 0) {
+                return n + Swar.firstIndex(different);
+            }
+        }
+        while (n < end && haystack[n] == first) {
+            n++;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,36 @@
+package org.logstash.dissect.search;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/*
+    Ors a whole vector of bytes per step and checks the sign bits once at the end.
+    Only use this class when VectorSupport.isAvailable() is true.
+ */
+final class VectorAscii {
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    private VectorAscii() {
+    }
+
+    static boolean isAscii(final byte[] bytes, final int begin, final int end) {
+        final int lanes = SPECIES.length();
+        final int upper = end - lanes;
+        ByteVector seen = ByteVector.zero(SPECIES);
+        int n = begin;
+        for (; n <= upper; n += lanes) {
+            seen = seen.or(ByteVector.fromArray(SPECIES, bytes, n));
+        }
+        if (seen.compare(VectorOperators.LT, (byte) 0).anyTrue()) {
+            return false;
+        }
+        // the tail is shorter than one vector
+        for (; n < end; n++) {
+            if (bytes[n] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
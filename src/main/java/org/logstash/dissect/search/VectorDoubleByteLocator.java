@@ -0,0 +1,42 @@
+package org.logstash.dissect.search;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/*
+    Compares a vector of haystack bytes with the first needle byte and the same vector
+    shifted by one byte with the second needle byte, the lanes set in both masks are matches.
+    Only use this class when VectorSupport.isAvailable() is true.
+ */
+public class VectorDoubleByteLocator implements DelimiterLocator {
+    public static final VectorDoubleByteLocator INSTANCE = new VectorDoubleByteLocator();
+
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    private VectorDoubleByteLocator() {
+    }
+
+    @Override
+    public final int indexOf(final byte[] needle, final byte[] haystack, final int offset, final int end) {
+        final byte first = needle[0];
+        final byte second = needle[1];
+        final int lanes = SPECIES.length();
+        // the shifted load reads one byte further
+        final int upper = end - lanes - 1;
+        int n = offset;
+        for (; n <= upper; n += lanes) {
+            final VectorMask<Byte> mask = ByteVector.fromArray(SPECIES, haystack, n).eq(first)
+                    .and(ByteVector.fromArray(SPECIES, haystack, n + 1).eq(second));
+            if (mask.anyTrue()) {
+                return n + mask.firstTrue();
+            }
+        }
+        for (; n < end - 1; n++) {
+            if (haystack[n] == first && haystack[n + 1] == second) {
+                return n;
+            }
+        }
+        return -1;
+    }
+}
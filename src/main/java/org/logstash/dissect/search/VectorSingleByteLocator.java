@@ -0,0 +1,58 @@
+package org.logstash.dissect.search;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/*
+    Compares a whole vector of haystack bytes (16, 32 or 64 depending on the CPU) per step.
+    Only use this class when VectorSupport.isAvailable() is true.
+ */
+public class VectorSingleByteLocator implements DelimiterLocator {
+    public static final VectorSingleByteLocator INSTANCE = new VectorSingleByteLocator();
+
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    private VectorSingleByteLocator() {
+    }
+
+    @Override
+    public final int indexOf(final byte[] needle, final byte[] haystack, final int offset, final int end) {
+        final byte first = needle[0];
+        final int lanes = SPECIES.length();
+        final int upper = end - lanes;
+        int n = offset;
+        for (; n <= upper; n += lanes) {
+            final VectorMask<Byte> mask = ByteVector.fromArray(SPECIES, haystack, n).eq(first);
+            if (mask.anyTrue()) {
+                return n + mask.firstTrue();
+            }
+        }
+        // the tail is shorter than one vector
+        for (; n < end; n++) {
+            if (haystack[n] == first) {
+                return n;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public final int skipRepeats(final byte[] needle, final byte[] haystack, final int offset, final int end) {
+        final byte first = needle[0];
+        final int lanes = SPECIES.length();
+        final int upper = end - lanes;
+        int n = offset;
+        for (; n <= upper; n += lanes) {
+            final VectorMask<Byte> mask = ByteVector.fromArray(SPECIES, haystack, n).compare(VectorOperators.NE, first);
+            if (mask.anyTrue()) {
+                return n + mask.firstTrue();
+            }
+        }
+        while (n < end && haystack[n] == first) {
+            n++;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,41 @@
+package org.logstash.dissect.search;
+
+import jdk.incubator.vector.ByteVector;
+
+import java.util.Optional;
+
+/*
+    The Vector API lives in the jdk.incubator.vector module which is only resolved
+    when the JVM is started with `--add-modules jdk.incubator.vector`.
+    The vector locators must not be loaded unless this check passes.
+ */
+public final class VectorSupport {
+    // below 128 bit registers the Vector API falls back to scalar code that is slower than a plain loop
+    private static final int MINIMUM_LANES = 16;
+    private static final boolean AVAILABLE = detect();
+
+    private VectorSupport() {
+    }
+
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    private static boolean detect() {
+        final Optional<Module> module = ModuleLayer.boot().findModule("jdk.incubator.vector");
+        if (!module.isPresent()) {
+            return false;
+        }
+        try {
+            return Probe.lanes() >= MINIMUM_LANES;
+        } catch (final LinkageError e) {
+            return false;
+        }
+    }
+
+    private static final class Probe {
+        static int lanes() {
+            return ByteVector.SPECIES_PREFERRED.length();
+        }
+    }
+}
@@ -4,10 +4,13 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.logstash.Event;
+import org.logstash.FieldReference;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.Random;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -112,4 +115,75 @@ public class ConverterTest {
         exception.expect(NumberFormatException.class);
         Converters.select("float").convert(e, "[bar]");
     }
+
+    @Test
+    public void tryConvertReportsAMissingValue() {
+        final Event e = subject("[foo]", 1234);
+        assertThat(Converters.select("int").tryConvert(e, FieldReference.from("[bar]"))).isEqualTo(Converter.Status.NULL_VALUE);
+        assertThat(e.getField("[bar]")).isNull();
+    }
+
+    @Test
+    public void tryConvertLeavesAValueThatIsNotANumber() {
+        final String src = "[foo]";
+        for (final String value : new String[]{"", "-", "abc", "1.2.3", "1e", "1e+", "--1", ".", "12a", "NaN", "1e9999999999"}) {
+            final Event e = subject(src, value);
+            assertThat(Converters.select("float").tryConvert(e, FieldReference.from(src))).as(value).isEqualTo(Converter.Status.UNCOERCIBLE);
+            assertThat(Converters.select("int").tryConvert(e, FieldReference.from(src))).as(value).isEqualTo(Converter.Status.UNCOERCIBLE);
+            assertThat(e.getField(src)).isEqualTo(value);
+        }
+    }
+
+    @Test
+    public void tryConvertTakesTheSyntaxOfBigDecimal() {
+        final String src = "[foo]";
+        for (final String value : new String[]{"0", "+7", "-42", ".5", "5.", "-1.25e3", "1E-2", "999999999999999999", "-9999999999999999999"}) {
+            final Event e = subject(src, value);
+            assertThat(Converters.select("float").tryConvert(e, FieldReference.from(src))).as(value).isEqualTo(Converter.Status.CONVERTED);
+            assertThat(e.getField(src)).as(value).isEqualTo(new BigDecimal(value));
+            final Event i = subject(src, value);
+            assertThat(Converters.select("int").tryConvert(i, FieldReference.from(src))).as(value).isEqualTo(Converter.Status.CONVERTED);
+            assertThat(i.getField(src)).as(value).isEqualTo(new BigDecimal(value).toBigInteger());
+        }
+    }
+
+    @Test
+    public void parseIntegersFromBytes() {
+        final String[] values = {"0", "7", "-7", "+7", "12345678", "123456789", "-1234567890123456", "999999999999999999",
+                "-999999999999999999", "9999999999999999999", "439474042575071862892", "00000000000000000042", "12.99", "-1e3"};
+        for (final String value : values) {
+            final byte[] bytes = ("x" + value + "y").getBytes(StandardCharsets.UTF_8);
+            assertThat(Converters.INT.parse(bytes, 1, bytes.length - 2)).as(value).isEqualTo(new BigDecimal(value).toBigInteger());
+        }
+    }
+
+    @Test
+    public void parseFloatsFromBytes() {
+        final String[] values = {"0", "-0.0", "12.34", "12.30", "+.5", "5.", "-123456789.012345678", "1234567890.1234567890", "1.5e-3", "-2E+2"};
+        for (final String value : values) {
+            final byte[] bytes = ("x" + value + "y").getBytes(StandardCharsets.UTF_8);
+            assertThat(Converters.FLOAT.parse(bytes, 1, bytes.length - 2)).as(value).isEqualTo(new BigDecimal(value));
+        }
+    }
+
+    @Test
+    public void parseTextThatIsNotANumberFromBytes() {
+        for (final String value : new String[]{"", "-", "+", ".", "1234567a", "12345678/", "1234:678", "12 34", "1.2.3", "0x10", "1e", "NaN"}) {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            assertThat(Converters.INT.parse(bytes, 0, bytes.length)).as(value).isNull();
+            assertThat(Converters.FLOAT.parse(bytes, 0, bytes.length)).as(value).isNull();
+        }
+    }
+
+    @Test
+    public void parseDigitsEightAtATime() {
+        final Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            // one to eighteen digits, with leading zeros at times
+            final String digits = String.format("%018d", Math.floorMod(random.nextLong(), 1_000_000_000_000_000_000L))
+                    .substring(random.nextInt(18));
+            final byte[] bytes = digits.getBytes(StandardCharsets.US_ASCII);
+            assertThat(Converters.parseDigits(bytes, 0, bytes.length)).as(digits).isEqualTo(Long.parseLong(digits));
+        }
+    }
 }
@@ -0,0 +1,63 @@
+package org.logstash.dissect;
+
+import org.junit.Test;
+import org.logstash.dissect.fields.InvalidFieldException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DissectorCacheTest {
+
+    @Test
+    public void testSameMappingIsCompiledOnce() {
+        final String mapping = "%{cache_a} %{cache_b} " + System.nanoTime();
+        final long hits = DissectorCache.hits();
+        final long misses = DissectorCache.misses();
+        final Dissector first = DissectorCache.get(mapping);
+        // a different String instance with the same text
+        final Dissector second = DissectorCache.get(new String(mapping.toCharArray()));
+        assertSame(first, second);
+        assertEquals(misses + 1, DissectorCache.misses());
+        assertEquals(hits + 1, DissectorCache.hits());
+        assertNotSame(first, DissectorCache.get(mapping + " %{cache_c}"));
+    }
+
+    @Test
+    public void testCachedDissectorDissects() {
+        final Map<String, Object> map = new HashMap<>();
+        assertTrue(DissectorCache.get("%{a} %{b}").dissect("x y".getBytes(), map));
+        assertEquals("x", map.get("a"));
+        assertEquals("y", map.get("b"));
+    }
+
+    @Test
+    public void testInvalidMappingIsNotCached() {
+        final String mapping = "%{+&bad} " + System.nanoTime();
+        final int size = DissectorCache.size();
+        try {
+            DissectorCache.get(mapping);
+            fail("an invalid mapping was compiled");
+        } catch (final InvalidFieldException e) {
+            assertTrue(e.getMessage().contains("+&bad"));
+        }
+        assertEquals(size, DissectorCache.size());
+    }
+
+    @Test
+    public void testUnusedMappingIsDropped() {
+        final String mapping = "%{dropped_a} %{dropped_b} " + System.nanoTime();
+        DissectorCache.get(mapping);
+        DissectorCache.clear(mapping);
+        final long misses = DissectorCache.misses();
+        // the cleared entry is dropped and the mapping is compiled again, then cached as usual
+        final Dissector compiled = DissectorCache.get(mapping);
+        assertEquals(misses + 1, DissectorCache.misses());
+        assertSame(compiled, DissectorCache.get(mapping));
+    }
+}
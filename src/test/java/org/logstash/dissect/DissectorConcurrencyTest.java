@@ -0,0 +1,185 @@
+package org.logstash.dissect;
+
+import org.junit.Test;
+import org.logstash.Event;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/*
+    One compiled Dissector is shared by all the pipeline workers.
+    These tests hammer one instance from many threads and check every result against a single threaded run,
+    across the switch from the interpreter to the specialized matcher.
+ */
+public class DissectorConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 20_000;
+
+    private static final String[][] CASES = {
+            {"%{a} %{+a} %{?k}=%{&k} %{c->} %{d}", "x y key=val c    d", "x y key=val"},
+            {"[%{ts}] %{code#3} %{msg*} (%{tail})", "[t1] 200 a (b) c (end)", "[t1] 20 a (b)"},
+            {"%{a}%[:space:]+%{b},%{c}", "one \t two,three", "one,two"},
+            {"%{+ts/2} %{+ts/1} %{host} %{?prog}[%{&prog}]: %{msg}", "16 Mar web01 sshd[1234]: accepted", "16 Mar web01"},
+            {manyFields(24), manySource(24), manySource(12)},
+    };
+
+    @Test
+    public void testOneInterpretedInstanceFromManyThreads() throws Exception {
+        for (final String[] c : CASES) {
+            hammer(Dissector.create(c[0], Dissector.SINGLE_PASS_MIN_FIELDS, -1), c);
+        }
+    }
+
+    @Test
+    public void testOneInstanceThatIsSpecializedWhileInUse() throws Exception {
+        for (final String[] c : CASES) {
+            final Dissector shared = Dissector.create(c[0], Dissector.SINGLE_PASS_MIN_FIELDS, ITERATIONS / 4);
+            hammer(shared, c);
+            assertTrue(c[0], shared.isSpecialized());
+        }
+    }
+
+    @Test
+    public void testInstancesCompiledConcurrently() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<Map<String, Object>>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS * 4; t++) {
+                final String[] c = CASES[t % CASES.length];
+                results.add(executor.submit(() -> {
+                    start.await();
+                    final Map<String, Object> map = new HashMap<>();
+                    Dissector.create(c[0]).dissect(c[1].getBytes(StandardCharsets.UTF_8), map);
+                    return map;
+                }));
+            }
+            start.countDown();
+            for (int t = 0; t < results.size(); t++) {
+                final String[] c = CASES[t % CASES.length];
+                assertEquals(c[0], expected(c[0], c[1]), results.get(t).get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testValuesFoundOnOtherThreadsAreSavedOnOne() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (final String[] c : CASES) {
+                final Dissector shared = Dissector.create(c[0]);
+                final byte[] matching = c[1].getBytes(StandardCharsets.UTF_8);
+                final byte[] failing = c[2].getBytes(StandardCharsets.UTF_8);
+                final List<Future<ValueResolver>> found = new ArrayList<>();
+                for (int t = 0; t < THREADS * 4; t++) {
+                    final byte[] source = t % 2 == 0 ? matching : failing;
+                    found.add(executor.submit(() -> shared.match(source, 0, source.length)));
+                }
+                final Map<String, Object> expectedEvent = expectedEvent(c[0], c[1]);
+                for (int t = 0; t < found.size(); t++) {
+                    final ValueResolver values = found.get(t).get(30, TimeUnit.SECONDS);
+                    if (t % 2 != 0) {
+                        assertTrue(c[0], values == null);
+                        continue;
+                    }
+                    final Event event = new Event();
+                    shared.save(values, event);
+                    assertEquals(c[0], expectedEvent, event.getData());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void hammer(final Dissector shared, final String[] c) throws Exception {
+        final byte[] matching = c[1].getBytes(StandardCharsets.UTF_8);
+        final byte[] failing = c[2].getBytes(StandardCharsets.UTF_8);
+        final Map<String, Object> expectedMatch = expected(c[0], c[1]);
+        final Map<String, Object> expectedEvent = expectedEvent(c[0], c[1]);
+        final ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final int offset = t;
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ITERATIONS; i++) {
+                        // mix matches, failures and both kinds of output so threads interleave different paths
+                        switch ((i + offset) % 3) {
+                            case 0:
+                                final Map<String, Object> map = new HashMap<>();
+                                if (!shared.dissect(matching, map) || !expectedMatch.equals(map)) {
+                                    failures.add("map: " + map);
+                                }
+                                break;
+                            case 1:
+                                final Event event = new Event();
+                                if (!shared.dissect(matching, 0, matching.length, event) || !expectedEvent.equals(event.getData())) {
+                                    failures.add("event: " + event.getData());
+                                }
+                                break;
+                            default:
+                                final Map<String, Object> untouched = new HashMap<>();
+                                if (shared.dissect(failing, untouched) || !untouched.isEmpty()) {
+                                    failures.add("failure: " + untouched);
+                                }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (final Future<?> worker : workers) {
+                worker.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(c[0] + " " + failures.peek(), failures.isEmpty());
+    }
+
+    private static Map<String, Object> expected(final String mapping, final String source) {
+        final Map<String, Object> map = new HashMap<>();
+        assertTrue(Dissector.create(mapping, Dissector.SINGLE_PASS_MIN_FIELDS, -1).dissect(source.getBytes(StandardCharsets.UTF_8), map));
+        return map;
+    }
+
+    private static Map<String, Object> expectedEvent(final String mapping, final String source) {
+        final Event event = new Event();
+        assertTrue(Dissector.create(mapping, Dissector.SINGLE_PASS_MIN_FIELDS, -1).dissect(source.getBytes(StandardCharsets.UTF_8), event));
+        return event.getData();
+    }
+
+    private static String manyFields(final int count) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append("%{f").append(i).append("}").append(i % 2 == 0 ? " " : ", ");
+        }
+        return sb.append("%{last}").toString();
+    }
+
+    private static String manySource(final int count) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append("value").append(i).append(i % 2 == 0 ? " " : ", ");
+        }
+        return sb.append("end").toString();
+    }
+}
@@ -1,19 +1,30 @@
 package org.logstash.dissect;
 
 
+import org.jcodings.specific.UTF8Encoding;
+import org.jruby.RubyHash;
+import org.jruby.RubyString;
 import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.logstash.ConvertedMap;
 import org.logstash.Event;
+import org.logstash.FieldReference;
+import org.logstash.RubyUtil;
 import org.logstash.dissect.fields.InvalidFieldException;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
@@ -51,43 +62,43 @@ public class DissectorTest {
     public void testBasicArgs() throws Exception {
         final Map<String, Object> object = new HashMap<>();
         final String source = "foo bar   baz";
-        final DissectResult result = subject("%{a} %{b->} %{c}").dissect(source.getBytes(), object);
+        final boolean matched = subject("%{a} %{b->} %{c}").dissect(source.getBytes(), object);
         assertThat(object.size(), is(equalTo(3)));
         assertEquals("foo", object.get("a"));
         assertEquals("bar", object.get("b"));
         assertEquals("baz", object.get("c"));
-        assertTrue(result.matched());
+        assertTrue(matched);
     }
 
     @Test
     public void testNullSource() throws Exception {
         final Map<String, Object> object = new HashMap<>();
-        final DissectResult result = subject("%{a}%{b} %{c}").dissect(null, object);
-        assertTrue(result.notMatched());
+        final boolean matched = subject("%{a}%{b} %{c}").dissect(null, object);
+        assertFalse(matched);
     }
 
     @Test
     public void testMissingDelimBegin() throws Exception {
         final Map<String, Object> object = new HashMap<>();
-        final DissectResult result = subject("%{a}%{b} %{c}")
+        final boolean matched = subject("%{a}%{b} %{c}")
                 .dissect("foo bar   baz".getBytes(), object);
-        assertTrue(result.notMatched());
+        assertFalse(matched);
     }
 
     @Test
     public void testMissingDelimMiddle() throws Exception {
         final Map<String, Object> object = new HashMap<>();
-        DissectResult result = subject("%{a} %{b}%{c} %{d}")
+        boolean matched = subject("%{a} %{b}%{c} %{d}")
                 .dissect("foo bar baz".getBytes(), object);
-        assertTrue(result.notMatched());
+        assertFalse(matched);
     }
 
     @Test
     public void testMissingDelimEnd() throws Exception {
         final Map<String, Object> object = new HashMap<>();
-        DissectResult result = subject("%{a} %{b} %{c}%{d}")
+        boolean matched = subject("%{a} %{b} %{c}%{d}")
                 .dissect("foo bar baz quux".getBytes(), object);
-        assertTrue(result.notMatched());
+        assertFalse(matched);
     }
 
     @Test
@@ -288,6 +299,89 @@ public class DissectorTest {
         assertEquals("baz", object.getField("c"));
     }
 
+    @Test
+    public void testIndirectKeysFromTheMappingTakePrecedenceOverTheEvent() throws Exception {
+        final Event object = new Event();
+        object.setField("k1", "stale");
+        subject("%{?k1}=%{&k1}, %{?k2}=%{&k2}")
+                .dissect("foo=bar, baz=quux".getBytes(), object);
+
+        assertEquals("bar", object.getField("foo"));
+        assertEquals("quux", object.getField("baz"));
+        assertEquals(null, object.getField("stale"));
+    }
+
+    @Test
+    public void testIndirectKeyFromASavedFieldTakesPrecedenceOverASkipField() throws Exception {
+        final Event event = new Event();
+        subject("%{&f0} %{?f0},%{f0}").dissect("v k,n".getBytes(), event);
+        assertEquals("v", event.getField("n"));
+        assertEquals(null, event.getField("k"));
+
+        final Map<String, Object> map = new HashMap<>();
+        subject("%{&f0} %{?f0},%{f0}").dissect("v k,n".getBytes(), map);
+        assertEquals("v", map.get("n"));
+        assertFalse(map.containsKey("k"));
+    }
+
+    @Test
+    public void testIndirectKeyFromADuplicateNameUsesTheLastSavedValue() throws Exception {
+        final Event event = new Event();
+        subject("%{&f1}a%{f1},%{f1}a").dissect("vaX,Ya".getBytes(), event);
+        assertEquals("Y", event.getField("f1"));
+        assertEquals("v", event.getField("Y"));
+        assertEquals(null, event.getField("X"));
+
+        final Map<String, Object> map = new HashMap<>();
+        subject("%{&f1}a%{f1},%{f1}a").dissect("vaX,Ya".getBytes(), map);
+        assertEquals("v", map.get("Y"));
+        assertFalse(map.containsKey("X"));
+    }
+
+    @Test
+    public void testSelfKeyedIndirectFieldsUseEachOthersValues() throws Exception {
+        final Event event = new Event();
+        subject("%{&f0} %{&f0}").dissect("a b".getBytes(), event);
+        assertEquals("a", event.getField("b"));
+        assertEquals("b", event.getField("a"));
+
+        final Map<String, Object> map = new HashMap<>();
+        subject("%{&f0} %{&f0}").dissect("a b".getBytes(), map);
+        assertEquals(2, map.size());
+        assertEquals("a", map.get("b"));
+        assertEquals("b", map.get("a"));
+    }
+
+    @Test
+    public void testIndirectKeyFromAnAppendFieldUsesTheJoinedValue() throws Exception {
+        final Event object = new Event();
+        subject("%{k} %{+k} %{&k}")
+                .dissect("a b c".getBytes(), object);
+
+        assertEquals("c", object.getField("a b"));
+    }
+
+    @Test
+    public void testAppendGroupIsJoinedOntoTheEventValueOnce() throws Exception {
+        final Event object = new Event();
+        object.setField("ts", "pre");
+        assertTrue(subject("%{+ts/3}|%{+ts/1}-%{+ts/2}").dissect("a|b-c".getBytes(), object));
+        assertEquals("pre|b-c a", object.getField("ts"));
+    }
+
+    @Test
+    public void testAppendGroupWithoutAnEarlierValue() throws Exception {
+        final Event object = new Event();
+        final Map<String, Object> map = new HashMap<>();
+        final Dissector dissector = subject("%{ts} %{+ts} %{+ts} %{+other} %{+ts}");
+        assertTrue(dissector.dissect("Mar 16 00:01:25 x evita".getBytes(), object));
+        assertTrue(dissector.dissect("Mar 16 00:01:25 x evita".getBytes(), map));
+        assertEquals("Mar 16 00:01:25 evita", object.getField("ts"));
+        assertEquals("x", object.getField("other"));
+        assertEquals("Mar 16 00:01:25 evita", map.get("ts"));
+        assertEquals("x", map.get("other"));
+    }
+
     @Test
     public void testComplex() throws Exception {
         final String src = "42 2016-05-25T14:47:23Z host.name.com RT_FLOW - RT_FLOW_SESSION_DENY: session denied 2.2.2.20/60000->1.1.1.10/8090 None 6(0) DEFAULT-DENY ZONE-UNTRUST ZONE-DMZ UNKNOWN UNKNOWN N/A(N/A) ge-0/0/0.0";
@@ -367,6 +461,18 @@ public class DissectorTest {
         assertEquals("baz", object.get("c"));
     }
 
+    @Test
+    public void testHeavilyPaddedColumns() throws Exception {
+        final Map<String, Object> object = new HashMap<>();
+        final String padding = "                                        ";
+        subject("%{a->} %{b->} %{c}")
+                .dissect(("00000043" + padding + "ViewReceiver" + padding.substring(13) + "I").getBytes(), object);
+        assertThat(object.size(), is(equalTo(3)));
+        assertEquals("00000043", object.get("a"));
+        assertEquals("ViewReceiver", object.get("b"));
+        assertEquals("I", object.get("c"));
+    }
+
     @Test
     public void testLeadingDelimiters() throws Exception {
         final Map<String, Object> object = new HashMap<>();
@@ -393,8 +499,8 @@ public class DissectorTest {
     public void testMultibyteCharacterStrings() throws Exception {
         final Map<String, Object> object = new HashMap<>();
         final byte[] bytes = "⟳༒.࿏.༒⟲".getBytes();
-        final DissectResult result = subject("%{a}.࿏.%{b}").dissect(bytes, object);
-        assertTrue(result.matched());
+        final boolean matched = subject("%{a}.࿏.%{b}").dissect(bytes, object);
+        assertTrue(matched);
         assertEquals("⟳༒", object.get("a"));
         assertEquals("༒⟲", object.get("b"));
     }
@@ -403,8 +509,8 @@ public class DissectorTest {
     public void testSingleMultibyteCharacterString() throws Exception {
         final Map<String, Object> object = new HashMap<>();
         final byte[] bytes = "子".getBytes();
-        final DissectResult result = subject("%{a}").dissect(bytes, object);
-        assertTrue(result.matched());
+        final boolean matched = subject("%{a}").dissect(bytes, object);
+        assertTrue(matched);
         assertEquals("子", object.get("a"));
     }
 
@@ -422,9 +528,9 @@ public class DissectorTest {
     @Test
     public void testStartingDelimInMiddle() throws Exception {
         final Map<String, Object> object = new HashMap<>();
-        DissectResult result = subject("MACHINE[%{a}] %{b}")
+        boolean matched = subject("MACHINE[%{a}] %{b}")
                 .dissect("1234567890 MACHINE[foo] bar".getBytes(), object);
-        assertTrue(result.notMatched());
+        assertFalse(matched);
     }
 
     @Test
@@ -466,21 +572,21 @@ public class DissectorTest {
     public void testPaddingWithTextEnd() throws Exception {
         final Map<String, Object> object = new HashMap<>();
         final String source = "XXX YYY ZZZ";
-        final DissectResult result = subject("XXX %{y->} ZZZ").dissect(source.getBytes(), object);
+        final boolean matched = subject("XXX %{y->} ZZZ").dissect(source.getBytes(), object);
         assertThat(object.size(), is(equalTo(1)));
         assertEquals("YYY", object.get("y"));
-        assertTrue(result.matched());
+        assertTrue(matched);
     }
 
     @Test
     public void testPaddingFollowingFieldEnd() throws Exception {
         final Map<String, Object> object = new HashMap<>();
         final String source = "XXX YYY ZZZ";
-        final DissectResult result = subject("XXX %{y->} %{z}").dissect(source.getBytes(), object);
+        final boolean matched = subject("XXX %{y->} %{z}").dissect(source.getBytes(), object);
         assertThat(object.size(), is(equalTo(2)));
         assertEquals("YYY", object.get("y"));
         assertEquals("ZZZ", object.get("z"));
-        assertTrue(result.matched());
+        assertTrue(matched);
     }
 
     // First test to define correct behaviour for elasticsearch#119264
@@ -501,4 +607,524 @@ public class DissectorTest {
                 .dissect("||foo=bar".getBytes(), object);
         assertEquals("bar", object.get("field"));
     }
+
+    @Test
+    public void testFixedWidthColumns() throws Exception {
+        final Map<String, Object> object = new HashMap<>();
+        final boolean matched = subject("%{date#8}%{level#3}%{?#2}%{msg}")
+                .dissect("20160525ERR  disk full".getBytes(), object);
+        assertTrue(matched);
+        assertThat(object.size(), is(equalTo(3)));
+        assertEquals("20160525", object.get("date"));
+        assertEquals("ERR", object.get("level"));
+        assertEquals("disk full", object.get("msg"));
+    }
+
+    @Test
+    public void testAWidthSuffixIsNotPartOfTheName() throws Exception {
+        // before 2.0.0 this key was saved as `id#2`
+        final Map<String, Object> object = new HashMap<>();
+        assertTrue(subject("%{id#2}%{rest} %{code#x}").dissect("abcd e".getBytes(), object));
+        assertEquals("ab", object.get("id"));
+        assertEquals("cd", object.get("rest"));
+        assertEquals("e", object.get("code#x"));
+        assertFalse(object.containsKey("id#2"));
+    }
+
+    @Test
+    public void testFixedWidthLastFieldTakesOnlyItsWidth() throws Exception {
+        final Map<String, Object> object = new HashMap<>();
+        final boolean matched = subject("%{a#4}%{b#6}")
+                .dissect("aaaabbbbbb\n".getBytes(), object);
+        assertTrue(matched);
+        assertEquals("aaaa", object.get("a"));
+        assertEquals("bbbbbb", object.get("b"));
+    }
+
+    @Test
+    public void testFixedWidthWithAnchoredDelimiters() throws Exception {
+        final Map<String, Object> object = new HashMap<>();
+        final boolean matched = subject("%{id#4} %{+ts/2#5} %{+ts/1#5->} %{rest}")
+                .dissect("0042 12:00 01-01     and more".getBytes(), object);
+        assertTrue(matched);
+        assertEquals("0042", object.get("id"));
+        assertEquals("01-01 12:00", object.get("ts"));
+        assertEquals("and more", object.get("rest"));
+    }
+
+    @Test
+    public void testFixedWidthDelimiterNotDirectlyAfterValue() throws Exception {
+        final Map<String, Object> object = new HashMap<>();
+        final boolean matched = subject("%{a#3} %{b}")
+                .dissect("aaaa bbb".getBytes(), object);
+        assertFalse(matched);
+        assertTrue(object.isEmpty());
+    }
+
+    @Test
+    public void testFixedWidthSourceTooShort() throws Exception {
+        final Map<String, Object> object = new HashMap<>();
+        assertFalse(subject("%{a#3}%{b#4}").dissect("aaabb".getBytes(), object));
+        assertFalse(subject("%{a#3}|%{b}").dissect("aa".getBytes(), object));
+        assertTrue(object.isEmpty());
+    }
+
+    @Test
+    public void testFixedWidthIsInBytes() throws Exception {
+        final Map<String, Object> object = new HashMap<>();
+        final boolean matched = subject("%{a#3}%{b}").dissect("子x".getBytes(), object);
+        assertTrue(matched);
+        assertEquals("子", object.get("a"));
+        assertEquals("x", object.get("b"));
+    }
+
+    @Test
+    public void testFixedWidthSplittingACharacterGivesAReplacementCharacter() throws Exception {
+        final byte[] bytes = "子x".getBytes(StandardCharsets.UTF_8);
+        final Map<String, Object> map = new HashMap<>();
+        assertTrue(subject("%{a#2}").dissect(bytes, map));
+        assertEquals("\uFFFD", map.get("a"));
+
+        final Event event = new Event();
+        assertTrue(subject("%{a#2}").dissect(bytes, event));
+        assertEquals("\uFFFD", event.getField("a"));
+        final RubyString value = (RubyString) event.getUnconvertedField("a");
+        assertArrayEquals("\uFFFD".getBytes(StandardCharsets.UTF_8), value.getBytes());
+    }
+
+    @Test
+    public void testAppendingSplitCharactersGivesReplacementCharacters() throws Exception {
+        final byte[] bytes = "子x".getBytes(StandardCharsets.UTF_8);
+        final Map<String, Object> map = new HashMap<>();
+        assertTrue(subject("%{+a#2}%{+a}").dissect(bytes, map));
+        assertEquals("\uFFFD \uFFFDx", map.get("a"));
+
+        final Event event = new Event();
+        assertTrue(subject("%{+a#2}%{+a}").dissect(bytes, event));
+        assertEquals("\uFFFD \uFFFDx", event.getField("a"));
+        final RubyString value = (RubyString) event.getUnconvertedField("a");
+        assertArrayEquals("\uFFFD \uFFFDx".getBytes(StandardCharsets.UTF_8), value.getBytes());
+    }
+
+    @Test
+    public void testInvalidZeroWidthField() {
+        exception.expect(InvalidFieldException.class);
+        exception.expectMessage("Field width must be greater than zero: a#0");
+        subject("%{a#0} %{b}");
+    }
+
+    @Test
+    public void testHashInFieldNameIsNotAWidth() throws Exception {
+        final Map<String, Object> object = new HashMap<>();
+        subject("%{a#b} %{c#1x}").dissect("foo bar".getBytes(), object);
+        assertEquals("foo", object.get("a#b"));
+        assertEquals("bar", object.get("c#1x"));
+    }
+
+    @Test
+    public void testSpanningFieldContainsItsDelimiter() throws Exception {
+        final Map<String, Object> object = new HashMap<>();
+        final boolean matched = subject("%{verb} %{url*} %{status} %{bytes}")
+                .dissect("GET /a b/c d 200 15".getBytes(), object);
+        assertTrue(matched);
+        assertEquals("GET", object.get("verb"));
+        assertEquals("/a b/c d", object.get("url"));
+        assertEquals("200", object.get("status"));
+        assertEquals("15", object.get("bytes"));
+    }
+
+    @Test
+    public void testASpanningSuffixIsNotPartOfTheName() throws Exception {
+        // before 2.0.0 this key was saved as `msg*` and the fields after it were found from the left
+        final Map<String, Object> object = new HashMap<>();
+        assertTrue(subject("%{msg*} %{level}").dissect("a b c".getBytes(), object));
+        assertEquals("a b", object.get("msg"));
+        assertEquals("c", object.get("level"));
+        assertFalse(object.containsKey("msg*"));
+    }
+
+    @Test
+    public void testSpanningFieldWithTrailingDelimiter() throws Exception {
+        final Map<String, Object> object = new HashMap<>();
+        final boolean matched = subject("/var/%{path*}.log")
+                .dissect("/var/app.v2.log".getBytes(), object);
+        assertTrue(matched);
+        assertEquals("app.v2", object.get("path"));
+    }
+
+    @Test
+    public void testSpanningFieldFirstAndEmpty() throws Exception {
+        final Map<String, Object> object = new HashMap<>();
+        assertTrue(subject("%{msg*}: %{code}").dissect("a: b: 42".getBytes(), object));
+        assertEquals("a: b", object.get("msg"));
+        assertEquals("42", object.get("code"));
+        object.clear();
+        assertTrue(subject("%{a} %{msg*} %{b}").dissect("x  y".getBytes(), object));
+        assertEquals("", object.get("msg"));
+        assertEquals("y", object.get("b"));
+    }
+
+    @Test
+    public void testSpanningFieldWithGreedyAndFixedWidthAfterIt() throws Exception {
+        final Map<String, Object> object = new HashMap<>();
+        final boolean matched = subject("%{id} %{msg*->} %{level#4}|%{code}")
+                .dissect("7 disk is full   WARN|E12".getBytes(), object);
+        assertTrue(matched);
+        assertEquals("7", object.get("id"));
+        assertEquals("disk is full", object.get("msg"));
+        assertEquals("WARN", object.get("level"));
+        assertEquals("E12", object.get("code"));
+    }
+
+    @Test
+    public void testSpanningFieldBails() throws Exception {
+        final Map<String, Object> object = new HashMap<>();
+        // the delimiters after the span must be found to the right of the values before it
+        assertFalse(subject("%{a} %{msg*} %{b}").dissect("x y".getBytes(), object));
+        assertFalse(subject("%{a}|%{msg*}|%{b}").dissect("x|y".getBytes(), object));
+        assertFalse(subject("%{msg*} %{b#4}").dissect("abc xyz".getBytes(), object));
+        assertTrue(object.isEmpty());
+    }
+
+    @Test
+    public void testInvalidTwoSpanningFields() {
+        exception.expect(InvalidFieldException.class);
+        exception.expectMessage("Only one field can be spanning in the mapping: %{a*} %{b*} %{c}");
+        subject("%{a*} %{b*} %{c}");
+    }
+
+    @Test
+    public void testInvalidSpanningFixedWidthField() {
+        exception.expect(InvalidFieldException.class);
+        exception.expectMessage("Field cannot be both spanning and fixed width: a*#3");
+        subject("%{a*#3} %{b}");
+    }
+
+    @Test
+    public void testByteClassDelimiterSingleByte() throws Exception {
+        final Map<String, Object> object = new HashMap<>();
+        final boolean matched = subject("%{a}%[:blank:]%{b}%[:blank:]%{c}")
+                .dissect("one\ttwo three".getBytes(), object);
+        assertTrue(matched);
+        assertEquals("one", object.get("a"));
+        assertEquals("two", object.get("b"));
+        assertEquals("three", object.get("c"));
+        object.clear();
+        // a single byte class delimiter sees consecutive bytes as empty fields
+        subject("%{a}%[:blank:]%{b}%[:blank:]%{c}").dissect("one\t two".getBytes(), object);
+        assertEquals("", object.get("b"));
+        assertEquals("two", object.get("c"));
+    }
+
+    @Test
+    public void testByteClassDelimiterRun() throws Exception {
+        final Map<String, Object> object = new HashMap<>();
+        final boolean matched = subject("%{ts}%[:space:]+%{level}%[:space:]+%{msg}")
+                .dissect("12:00:01 \t  WARN\t\tdisk is full".getBytes(), object);
+        assertTrue(matched);
+        assertEquals("12:00:01", object.get("ts"));
+        assertEquals("WARN", object.get("level"));
+        assertEquals("disk is full", object.get("msg"));
+    }
+
+    @Test
+    public void testByteClassDelimiterSet() throws Exception {
+        final Map<String, Object> object = new HashMap<>();
+        final boolean matched = subject("%{a}%[,;]%{b}%[,;]%{c}")
+                .dissect("x;y,z".getBytes(), object);
+        assertTrue(matched);
+        assertEquals("x", object.get("a"));
+        assertEquals("y", object.get("b"));
+        assertEquals("z", object.get("c"));
+    }
+
+    @Test
+    public void testByteClassLeadingRunAndAppend() throws Exception {
+        final Map<String, Object> object = new HashMap<>();
+        final boolean matched = subject("%[:space:]+%{a}%[:space:]+%{+a}")
+                .dissect("  \tfoo \tbar".getBytes(), object);
+        assertTrue(matched);
+        // a class delimiter is appended as a single space
+        assertEquals("foo bar", object.get("a"));
+        assertFalse(subject("%[:space:]+%{a} %{b}").dissect("foo bar".getBytes(), object));
+    }
+
+    @Test
+    public void testByteClassDelimiterNotFound() throws Exception {
+        final Map<String, Object> object = new HashMap<>();
+        assertFalse(subject("%{a}%[:digit:]%{b}").dissect("abc".getBytes(), object));
+        assertTrue(object.isEmpty());
+    }
+
+    @Test
+    public void testByteClassDelimiterWithSpanningField() throws Exception {
+        final Map<String, Object> object = new HashMap<>();
+        final boolean matched = subject("%{a}%[:space:]+%{msg*}%[:space:]+%{b}")
+                .dissect("x  lots of\twords \t y".getBytes(), object);
+        assertTrue(matched);
+        assertEquals("x", object.get("a"));
+        assertEquals("lots of\twords", object.get("msg"));
+        assertEquals("y", object.get("b"));
+    }
+
+    @Test
+    public void testInvalidSourceReferenceFailsTheMapping() {
+        final RubyHash mapping = RubyHash.newHash(RubyUtil.RUBY);
+        mapping.put("[a", "%{a} %{b}");
+        exception.expect(InvalidFieldException.class);
+        exception.expectMessage("Source is not a valid field reference: [a");
+        DissectPair.createArrayFromHash(mapping);
+    }
+
+    @Test
+    public void testInvalidConversionReferenceFailsTheMapping() {
+        final RubyHash conversions = RubyHash.newHash(RubyUtil.RUBY);
+        conversions.put("[a", "int");
+        exception.expect(InvalidFieldException.class);
+        exception.expectMessage("Conversion field is not a valid field reference: [a");
+        ConvertPair.createArrayFromHash(conversions);
+    }
+
+    @Test
+    public void testUnknownByteClassDelimiter() {
+        exception.expect(InvalidFieldException.class);
+        exception.expectMessage("Unknown delimiter class: [:alpha:]");
+        subject("%{a}%[:alpha:]%{b}");
+    }
+
+    @Test
+    public void testScratchIsReusedAcrossCalls() throws Exception {
+        final Dissector dissector = subject("%{a} %{b->} %{c}");
+        final Map<String, Object> object = new HashMap<>();
+        assertTrue(dissector.dissect("a longer first line".getBytes(), object));
+        assertEquals("first line", object.get("c"));
+        assertFalse(dissector.dissect("nomatch".getBytes(), object));
+        object.clear();
+        assertTrue(dissector.dissect("x y   z".getBytes(), object));
+        assertEquals("x", object.get("a"));
+        assertEquals("y", object.get("b"));
+        assertEquals("z", object.get("c"));
+    }
+
+    @Test
+    public void testDissectPartOfAByteArray() throws Exception {
+        final Map<String, Object> object = new HashMap<>();
+        final byte[] buffer = "| x-->a b c| |".getBytes();
+        // the text is `x-->a b c`, the delimiters around it must not be seen
+        final boolean matched = subject("x-->%{a} %{b} %{c}").dissect(buffer, 2, 9, object);
+        assertTrue(matched);
+        assertEquals("a", object.get("a"));
+        assertEquals("b", object.get("b"));
+        assertEquals("c", object.get("c"));
+        object.clear();
+        assertFalse(subject("x-->%{a} %{b}|%{c}").dissect(buffer, 2, 9, object));
+        assertFalse(subject("|%{a}").dissect(buffer, 2, 9, object));
+        assertTrue(object.isEmpty());
+    }
+
+    @Test
+    public void testDissectPartOfAByteArrayFromTheRight() throws Exception {
+        final Map<String, Object> object = new HashMap<>();
+        final byte[] buffer = "  a b c d e  ".getBytes();
+        assertTrue(subject("%{a} %{b*} %{c#1}").dissect(buffer, 2, 9, object));
+        assertEquals("a", object.get("a"));
+        assertEquals("b c d", object.get("b"));
+        assertEquals("e", object.get("c"));
+        object.clear();
+        assertTrue(subject("%{a} %{b->} %{c}").dissect(buffer, 2, 5, object));
+        assertEquals("c", object.get("c"));
+    }
+
+    @Test
+    public void testAsciiAndUtf8ValuesInOneSource() throws Exception {
+        final Map<String, Object> object = new HashMap<>();
+        assertTrue(subject("%{a} %{b} %{c}").dissect("plain café text".getBytes(StandardCharsets.UTF_8), object));
+        assertEquals("plain", object.get("a"));
+        assertEquals("café", object.get("b"));
+        assertEquals("text", object.get("c"));
+    }
+
+    @Test
+    public void testEventValuesAreRubyStringsOfTheSourceBytes() throws Exception {
+        final Event object = new Event();
+        object.setField("b", 42);
+        final byte[] buffer = "|x࿏y z w|".getBytes(StandardCharsets.UTF_8);
+        assertTrue(subject("%{a} %{+a} %{+b}").dissect(buffer, 1, buffer.length - 2, object));
+        final Object value = object.getUnconvertedField("a");
+        assertTrue(value instanceof RubyString);
+        assertEquals("x࿏y z", value.toString());
+        assertEquals(UTF8Encoding.INSTANCE, ((RubyString) value).getEncoding());
+        // an earlier value that is not a string is appended to as text
+        assertEquals("42 w", object.getField("b"));
+    }
+
+    @Test
+    public void testInvalidFieldReference() {
+        exception.expect(InvalidFieldException.class);
+        exception.expectMessage("Field name is not a valid field reference: [foo");
+        subject("%{[foo} %{b}");
+    }
+
+    @Test
+    public void testNestedFieldsWithEvent() throws Exception {
+        final Event object = new Event();
+        assertTrue(subject("%{[a][b]} %{+[a][b]} %{?k} %{&k}").dissect("x y [c][d] z".getBytes(), object));
+        assertEquals("x y", object.getField("[a][b]"));
+        assertEquals("z", object.getField("[c][d]"));
+    }
+
+    @Test
+    public void testTargetMapIsFilled() throws Exception {
+        final ConvertedMap target = ConvertedMap.newFromMap(Collections.emptyMap());
+        assertTrue(subject("%{a} %{+a} %{?k} %{&k}").dissect("x y z w".getBytes(), 0, 7, target));
+        assertTrue(target.get("a") instanceof RubyString);
+        assertEquals("x y", target.get("a").toString());
+        assertEquals("w", target.get("z").toString());
+        assertFalse(target.containsKey("k"));
+    }
+
+    @Test
+    public void testTargetMapAppendsToExistingKeys() throws Exception {
+        final Map<String, Object> existing = new HashMap<>();
+        existing.put("a", "first");
+        existing.put("n", 42);
+        existing.put("k", "key");
+        final ConvertedMap target = ConvertedMap.newFromMap(existing);
+        assertTrue(subject("%{+a} %{+n} %{&k}").dissect("x y z".getBytes(), 0, 5, target));
+        assertEquals("first x", target.get("a").toString());
+        assertEquals("42 y", target.get("n").toString());
+        assertEquals("z", target.get("key").toString());
+    }
+
+    @Test
+    public void testTargetMapIsUntouchedWhenNotFound() throws Exception {
+        final ConvertedMap target = ConvertedMap.newFromMap(Collections.emptyMap());
+        assertFalse(subject("%{a} %{b}").dissect("xy".getBytes(), 0, 2, target));
+        assertTrue(target.isEmpty());
+    }
+
+    @Test
+    public void testNestedFieldsCannotBeTargetKeys() {
+        exception.expect(InvalidFieldException.class);
+        exception.expectMessage("Field name cannot be a nested field reference when a target is set: [a][b]");
+        subject("%{[a][b]} %{c}").checkTargetKeys();
+    }
+
+    @Test
+    public void testSpecializedMatcherFindsTheSameValues() throws Exception {
+        final String[][] cases = {
+                {"%{a} %{+a} %{?k}=%{&k} %{c->} %{d}", "x y key=val c    d"},
+                {"[%{ts}] %{code#3} %{msg*} (%{tail})", "[t1] 200 a (b) c (end)"},
+                {"%{a}%[:space:]+%{b},%{c}", "one \t two,three"},
+                {"%{a} %{b} %{c}", "too short"},
+                {"%{a} %{b*} %{c->} %{d#2}", "x y z c    dd"},
+                {"%{a} %{b*} %{c#2}", "x y"},
+                {"<%{a}>%{b}", "<x>y"},
+                {"<%{a}>%{b}", "x>y"},
+        };
+        for (final String[] c : cases) {
+            final Map<String, Object> interpreted = new HashMap<>();
+            final Map<String, Object> specialized = new HashMap<>();
+            final boolean interpretedFound = Dissector.create(c[0], Dissector.SINGLE_PASS_MIN_FIELDS, -1).dissect(c[1].getBytes(), interpreted);
+            final Dissector dissector = Dissector.create(c[0], Dissector.SINGLE_PASS_MIN_FIELDS, 0);
+            final boolean specializedFound = dissector.dissect(c[1].getBytes(), specialized);
+            assertTrue(dissector.isSpecialized());
+            assertEquals(c[0], interpretedFound, specializedFound);
+            assertEquals(c[0], interpreted, specialized);
+        }
+    }
+
+    @Test
+    public void testMappingIsSpecializedAfterTheThreshold() throws Exception {
+        final Dissector dissector = Dissector.create("%{a} %{b}", Dissector.SINGLE_PASS_MIN_FIELDS, 3);
+        final Event object = new Event();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(dissector.dissect("x y".getBytes(), object));
+            assertFalse(dissector.isSpecialized());
+        }
+        assertTrue(dissector.dissect("z w".getBytes(), object));
+        assertTrue(dissector.isSpecialized());
+        assertEquals("z", object.getField("a"));
+        assertEquals("w", object.getField("b"));
+        assertFalse(Dissector.create("%{a} %{b}", Dissector.SINGLE_PASS_MIN_FIELDS, -1).isSpecialized());
+    }
+
+    @Test
+    public void testTheFieldsAMappingProduces() {
+        final Dissector dissector = Dissector.create("%{a} %{+a} %{?k}=%{&k} %{[n][b]} %{c}");
+        assertTrue(dissector.produces(FieldReference.from("a"), null));
+        assertTrue(dissector.produces(FieldReference.from("[n][b]"), null));
+        assertTrue(dissector.produces(FieldReference.from("[c]"), null));
+        // skip fields are not set and the keys of indirect fields are only known per event
+        assertFalse(dissector.produces(FieldReference.from("k"), null));
+        assertFalse(dissector.produces(FieldReference.from("b"), null));
+        final Dissector targeted = Dissector.create("%{a} %{c}");
+        assertTrue(targeted.produces(FieldReference.from("[t][a]"), FieldReference.from("t")));
+        assertTrue(targeted.produces(FieldReference.from("[x][t][c]"), FieldReference.from("[x][t]")));
+        assertFalse(targeted.produces(FieldReference.from("a"), FieldReference.from("t")));
+        assertFalse(targeted.produces(FieldReference.from("[u][a]"), FieldReference.from("t")));
+    }
+
+    @Test
+    public void testTypedFieldsAreParsedFromTheSourceBytes() {
+        final Dissector dissector = Dissector.create("%{verb} %{status:int} %{took->:float} %{bytes#4:INT}|%{rest}");
+        final Map<String, Object> map = new HashMap<>();
+        assertTrue(dissector.dissect("GET 200 0.125   0042|end".getBytes(StandardCharsets.UTF_8), map));
+        assertEquals("GET", map.get("verb"));
+        assertEquals(new BigInteger("200"), map.get("status"));
+        assertEquals(new BigDecimal("0.125"), map.get("took"));
+        assertEquals(new BigInteger("42"), map.get("bytes"));
+        assertEquals("end", map.get("rest"));
+    }
+
+    @Test
+    public void testTypedFieldThatIsNotANumberIsKeptAsTextAndTagged() {
+        final Dissector dissector = Dissector.create("%{status:int} %{took:float}");
+        final Event event = new Event();
+        final byte[] source = "OK 1.5".getBytes(StandardCharsets.UTF_8);
+        assertTrue(dissector.dissect(source, event));
+        assertEquals("OK", event.getField("status").toString());
+        assertEquals(new BigDecimal("1.5"), event.getField("took"));
+        assertEquals(Collections.singletonList("_dataconversionuncoercible_status_int"), event.getField("tags"));
+
+        final ConvertedMap target = ConvertedMap.newFromMap(Collections.emptyMap());
+        final Event targeted = new Event();
+        assertTrue(dissector.dissect(source, 0, source.length, target, targeted));
+        assertEquals("OK", target.get("status").toString());
+        assertEquals(Collections.singletonList("_dataconversionuncoercible_status_int"), targeted.getField("tags"));
+    }
+
+    @Test
+    public void testAColonThatIsNotADatatypeIsPartOfTheName() {
+        final Map<String, Object> map = new HashMap<>();
+        assertTrue(Dissector.create("%{a:b} %{c:integer}").dissect("1 2".getBytes(StandardCharsets.UTF_8), map));
+        assertEquals("1", map.get("a:b"));
+        assertEquals("2", map.get("c:integer"));
+    }
+
+    @Test
+    public void testOnlyNormalFieldsCanBeTyped() {
+        final Map<String, Object> map = new HashMap<>();
+        assertTrue(Dissector.create("%{?x:int} %{+ts:float} %{+ts:float} %{&x:int}")
+                .dissect("k 1.5 2 v".getBytes(StandardCharsets.UTF_8), map));
+        assertEquals("1.5 2", map.get("ts:float"));
+        assertEquals("v", map.get("k"));
+        assertFalse(map.containsKey("x:int"));
+        assertFalse(map.containsKey("ts"));
+    }
+
+    @Test
+    public void testConvertedFieldsAreTypedInTheMapping() {
+        final Map<String, String> types = new HashMap<>();
+        types.put("status", "int");
+        types.put("took", "float");
+        types.put("verb", "int");
+        assertEquals("[%{?verb}] %{status:int} %{took->:float} %{+took} %{other}",
+                Dissector.withTypes("[%{?verb}] %{status} %{took->} %{+took} %{other}", types));
+        final Dissector dissector = Dissector.create("%{a} %{b} %{+b} %{c:int}");
+        assertTrue(dissector.canTypeField("a"));
+        assertFalse(dissector.canTypeField("b"));
+        assertFalse(dissector.canTypeField("c"));
+        assertFalse(dissector.canTypeField("d"));
+    }
 }
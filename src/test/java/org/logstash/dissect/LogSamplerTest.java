@@ -0,0 +1,41 @@
+package org.logstash.dissect;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LogSamplerTest {
+
+    @Test
+    public void testOnlyTheLimitIsLetThroughPerInterval() {
+        final LogSampler sampler = new LogSampler(3, 1, TimeUnit.HOURS);
+        int taken = 0;
+        for (int i = 0; i < 100; i++) {
+            if (sampler.trySample()) {
+                taken++;
+            }
+        }
+        assertEquals(3, taken);
+        assertEquals(97L, sampler.suppressedThenReset());
+        assertEquals(0L, sampler.suppressedThenReset());
+    }
+
+    @Test
+    public void testANewIntervalStartsOnceTheIntervalHasPassed() {
+        final LogSampler sampler = new LogSampler(1, 10, TimeUnit.SECONDS);
+        final long start = System.nanoTime();
+        assertTrue(sampler.trySample());
+        assertFalse(sampler.trySample());
+        assertFalse(sampler.intervalElapsed(start));
+        final long later = start + TimeUnit.SECONDS.toNanos(11);
+        assertTrue(sampler.intervalElapsed(later));
+        // only one caller reports on an interval
+        assertFalse(sampler.intervalElapsed(later));
+        assertTrue(sampler.trySample());
+        assertFalse(sampler.trySample());
+    }
+}
@@ -0,0 +1,124 @@
+package org.logstash.dissect;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SinglePassScannerTest {
+    private static final String[][] CASES = {
+            {"%{a} %{b->} %{c}", "foo bar   baz"},
+            {"%{a}%{b} %{c}", "foo bar   baz"},
+            {"%{a} %{b} %{+b} %{z}", "foo bar baz quux"},
+            {"%{a}------->%{b}", "foo------->bar baz quux"},
+            {"%{+a/2} %{+a/4} %{+a/1} %{+a/3}", "bar quux foo baz"},
+            {"[%{a}] %{b} %{c}", "[foo bar] baz quux"},
+            {"[%{a}] %{b} %{c}", "foo bar] baz quux"},
+            {"%{k1}=%{&k1}, %{k2}=%{&k2}", "foo=bar, baz=quux"},
+            {"%{a->}   %{b->}---%{c}", "foo            bar------------baz"},
+            {"%{?->}-%{a}", "-----666"},
+            {"%{a},%{b},%{c},%{d},%{e},%{f}", "111,,333,,555,666"},
+            {"%{a}.࿏.%{b}", "⟳༒.࿏.༒⟲"},
+            {"%{a}{\n}%{b}", "aaa{\n}bbb"},
+            {"MACHINE[%{a}] %{b}", "1234567890 MACHINE[foo] bar"},
+            {"%{a} %{b} %{c}", "foo:bar:baz"},
+            {"/var/%{key1}/log/%{key2}.log", "/var/foo/log/bar.log"},
+            {"XXX %{y->} ZZZ", "XXX YYY ZZZ"},
+            {"XXX %{y->} %{z}", "XXX YYY ZZZ"},
+            {"%{a}-%{b}", "foo------bar"},
+            {"%{}|%{}|foo=%{field}", "||foo=bar"},
+            {"%{a} %{b} %{c}", " x y"},
+            {"%{a->} %{b}", "   x y"},
+            {"%{a}abab%{b}", "xabaabababy"},
+            {"%{a}aab%{b}", "aaaab"},
+            {"%{a}, %{b}", "x,y, z"},
+    };
+
+    private static Map<String, Object> dissect(final Dissector dissector, final String source, final boolean[] matched) {
+        final Map<String, Object> object = new HashMap<>();
+        matched[0] = dissector.dissect(source.getBytes(), object);
+        return object;
+    }
+
+    private static void assertSameAsPerFieldSearch(final String mapping, final String source) {
+        final Dissector singlePass = Dissector.create(mapping, 1);
+        final Dissector perField = Dissector.create(mapping, Integer.MAX_VALUE);
+        assertFalse(perField.isSinglePass());
+        final boolean[] expectedMatch = new boolean[1];
+        final boolean[] actualMatch = new boolean[1];
+        final Map<String, Object> expected = dissect(perField, source, expectedMatch);
+        final Map<String, Object> actual = dissect(singlePass, source, actualMatch);
+        final String message = mapping + " <- " + source;
+        assertEquals(message, expectedMatch[0], actualMatch[0]);
+        assertEquals(message, expected, actual);
+        // the same text in the middle of a larger buffer, surrounded by delimiter bytes
+        final byte[] text = source.getBytes();
+        final byte[] buffer = new byte[text.length + 6];
+        Arrays.fill(buffer, (byte) ' ');
+        System.arraycopy(text, 0, buffer, 3, text.length);
+        for (final Dissector dissector : new Dissector[]{singlePass, perField}) {
+            final Map<String, Object> embedded = new HashMap<>();
+            assertEquals(message, expectedMatch[0], dissector.dissect(buffer, 3, text.length, embedded));
+            assertEquals(message, expected, embedded);
+        }
+    }
+
+    @Test
+    public void testSameResultsAsPerFieldSearch() throws Exception {
+        for (final String[] pair : CASES) {
+            assertSameAsPerFieldSearch(pair[0], pair[1]);
+        }
+    }
+
+    @Test
+    public void testEmptyDelimiterIsNotScanned() throws Exception {
+        assertFalse(Dissector.create("%{a}%{b} %{c}", 1).isSinglePass());
+        assertTrue(Dissector.create("%{a} %{b} %{c}", 1).isSinglePass());
+    }
+
+    @Test
+    public void testLongMappingsAreScannedWhenOptedIn() throws Exception {
+        final StringBuilder mapping = new StringBuilder();
+        final StringBuilder source = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            mapping.append("%{f").append(i).append("}|");
+            source.append("value").append(i).append('|');
+        }
+        assertFalse(Dissector.create(mapping.toString()).isSinglePass());
+        assertFalse(Dissector.create(mapping.toString(), 100).isSinglePass());
+        final Dissector dissector = Dissector.create(mapping.toString(), 20);
+        assertTrue(dissector.isSinglePass());
+        final Map<String, Object> object = new HashMap<>();
+        assertTrue(dissector.dissect(source.toString().getBytes(), object));
+        assertEquals(20, object.size());
+        assertEquals("value7", object.get("f7"));
+    }
+
+    @Test
+    public void testRandomSourcesSameResultsAsPerFieldSearch() throws Exception {
+        final Random random = new Random(42L);
+        final String alphabet = "ab -|";
+        final String[] mappings = {
+                "%{a} %{b} %{c} %{d}",
+                "%{a}-|%{b->}--%{c}|%{d}",
+                "|%{a}ab%{b->} %{c}aab%{d}",
+                "%{a->} %{b}|-%{+a} %{c}"
+        };
+        for (final String mapping : mappings) {
+            for (int n = 0; n < 500; n++) {
+                final StringBuilder source = new StringBuilder();
+                final int length = 1 + random.nextInt(24);
+                for (int i = 0; i < length; i++) {
+                    source.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+                assertSameAsPerFieldSearch(mapping, source.toString());
+            }
+        }
+    }
+}
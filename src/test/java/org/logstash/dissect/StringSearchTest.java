@@ -1,7 +1,20 @@
 package org.logstash.dissect;
 
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
+import org.logstash.dissect.search.ByteClassLocator;
+import org.logstash.dissect.search.DelimiterLocator;
+import org.logstash.dissect.search.DoubleByteLocator;
+import org.logstash.dissect.search.LocatorStrategy;
+import org.logstash.dissect.search.SingleByteLocator;
+import org.logstash.dissect.search.SwarDoubleByteLocator;
+import org.logstash.dissect.search.SwarSingleByteLocator;
+import org.logstash.dissect.search.VectorDoubleByteLocator;
+import org.logstash.dissect.search.VectorSingleByteLocator;
+import org.logstash.dissect.search.VectorSupport;
+
+import java.nio.charset.StandardCharsets;
 
 public class StringSearchTest {
     @Test
@@ -67,4 +80,219 @@ public class StringSearchTest {
         Assert.assertEquals(7, p);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testVectorOneByteSearchMatchesScalar() throws Exception {
+        Assume.assumeTrue(VectorSupport.isAvailable());
+        final byte[] needle = "|".getBytes();
+        assertSameAsScalar(SingleByteLocator.INSTANCE, VectorSingleByteLocator.INSTANCE, needle, buildHaystack(needle, 203));
+    }
+
+    @Test
+    public void testVectorTwoBytesSearchMatchesScalar() throws Exception {
+        Assume.assumeTrue(VectorSupport.isAvailable());
+        final byte[] needle = "|-".getBytes();
+        final byte[] haystack = buildHaystack(needle, 203);
+        // a first byte without the second one must not be reported
+        haystack[70] = '|';
+        assertSameAsScalar(DoubleByteLocator.INSTANCE, VectorDoubleByteLocator.INSTANCE, needle, haystack);
+    }
+
+    @Test
+    public void testVectorTwoBytesSearchSplitOverLastByte() throws Exception {
+        Assume.assumeTrue(VectorSupport.isAvailable());
+        final byte[] needle = "..".getBytes();
+        final byte[] source = "0123456789012345678901234567890123456789012345678901234567890123456789.".getBytes();
+        Assert.assertEquals(-1, VectorDoubleByteLocator.INSTANCE.indexOf(needle, source, 0));
+    }
+
+    @Test
+    public void testSwarOneByteSearchMatchesScalar() throws Exception {
+        final byte[] needle = " ".getBytes();
+        assertSameAsScalar(SingleByteLocator.INSTANCE, SwarSingleByteLocator.INSTANCE, needle, buildHaystack(needle, 203));
+    }
+
+    @Test
+    public void testSwarOneByteSearchHighByte() throws Exception {
+        final byte[] needle = "»".getBytes(StandardCharsets.UTF_8);
+        final byte[] single = {needle[1]};
+        assertSameAsScalar(SingleByteLocator.INSTANCE, SwarSingleByteLocator.INSTANCE, single, buildHaystack(single, 203));
+    }
+
+    @Test
+    public void testSwarTwoBytesSearchMatchesScalar() throws Exception {
+        final byte[] needle = ", ".getBytes();
+        final byte[] haystack = buildHaystack(needle, 203);
+        // first bytes without the second and second bytes without the first must not be reported
+        haystack[20] = ',';
+        haystack[41] = ' ';
+        haystack[50] = ',';
+        haystack[51] = ',';
+        assertSameAsScalar(DoubleByteLocator.INSTANCE, SwarDoubleByteLocator.INSTANCE, needle, haystack);
+    }
+
+    @Test
+    public void testSwarTwoBytesSearchSplitOverLastByte() throws Exception {
+        final byte[] needle = "..".getBytes();
+        final byte[] source = "0123456789abcde.".getBytes();
+        Assert.assertEquals(-1, SwarDoubleByteLocator.INSTANCE.indexOf(needle, source, 0));
+    }
+
+    @Test
+    public void testLocatorStrategySelection() throws Exception {
+        Assert.assertEquals(LocatorStrategy.SCALAR, LocatorStrategy.select("scalar"));
+        Assert.assertEquals(LocatorStrategy.SWAR, LocatorStrategy.select("swar"));
+        Assert.assertEquals(LocatorStrategy.best(), LocatorStrategy.select("unknown"));
+        Assert.assertEquals(LocatorStrategy.best(), LocatorStrategy.select(null));
+    }
+
+    @Test
+    public void testMultiBytesSearchRepeatedPrefix() throws Exception {
+        final byte[] source = "aaaaaaaaabaaaab".getBytes();
+        final Delimiter delimiter = Delimiter.create("aaab");
+        Assert.assertEquals(6, delimiter.indexOf(source, 0));
+        Assert.assertEquals(11, delimiter.indexOf(source, 7));
+        Assert.assertEquals(-1, delimiter.indexOf(source, 12));
+    }
+
+    @Test
+    public void testMultiBytesSearchMatchesStringIndexOf() throws Exception {
+        final String source = "127.0.0.1 - - [25/May/2016:14:47:23 +0000] \"GET /index.html HTTP/1.1\" 200 1043 \"-\" \"curl/7.43.0\" HTTP/1.1\"";
+        final byte[] haystack = source.getBytes();
+        for (final String needle : new String[]{" HTTP/1.1\" ", "] \"", "\" \"", "HTTP/1.1\"", "GET /", "not there", "+0000]"}) {
+            final Delimiter delimiter = Delimiter.create(needle);
+            for (int offset = 0; offset <= haystack.length; offset++) {
+                Assert.assertEquals(needle + " from " + offset, source.indexOf(needle, offset), delimiter.indexOf(haystack, offset));
+            }
+        }
+    }
+
+    @Test
+    public void testSkipRepeatsSameForAllLocators() throws Exception {
+        final String padded = "a" + new String(new char[37]).replace('\0', ' ') + "b  c d" + new String(new char[70]).replace('\0', ' ');
+        final byte[] haystack = padded.getBytes();
+        final byte[] space = " ".getBytes();
+        final DelimiterLocator[] singles = VectorSupport.isAvailable()
+                ? new DelimiterLocator[]{SingleByteLocator.INSTANCE, SwarSingleByteLocator.INSTANCE, VectorSingleByteLocator.INSTANCE}
+                : new DelimiterLocator[]{SingleByteLocator.INSTANCE, SwarSingleByteLocator.INSTANCE};
+        for (final DelimiterLocator locator : singles) {
+            Assert.assertEquals(38, locator.skipRepeats(space, haystack, 1));
+            Assert.assertEquals(0, locator.skipRepeats(space, haystack, 0));
+            Assert.assertEquals(haystack.length, locator.skipRepeats(space, haystack, 44));
+            for (int offset = 0; offset <= haystack.length; offset++) {
+                Assert.assertEquals("offset " + offset, DoubleByteLocator.INSTANCE.skipRepeats(space, haystack, offset), locator.skipRepeats(space, haystack, offset));
+            }
+        }
+    }
+
+    @Test
+    public void testSkipRepeatsTwoBytes() throws Exception {
+        final byte[] haystack = "x-=-=-=-=-=-=-=-=-=-=-=-=-=-y-=-=-=".getBytes();
+        final byte[] needle = "-=".getBytes();
+        for (int offset = 0; offset <= haystack.length; offset++) {
+            Assert.assertEquals("offset " + offset, DoubleByteLocator.INSTANCE.skipRepeats(needle, haystack, offset), SwarDoubleByteLocator.INSTANCE.skipRepeats(needle, haystack, offset));
+        }
+        Assert.assertEquals(27, SwarDoubleByteLocator.INSTANCE.skipRepeats(needle, haystack, 1));
+        Assert.assertEquals(35, SwarDoubleByteLocator.INSTANCE.skipRepeats(needle, haystack, 29));
+    }
+
+    @Test
+    public void testSkipRepeatsMultiBytes() throws Exception {
+        final byte[] haystack = "x-->-->-->-y".getBytes();
+        final Delimiter delimiter = Delimiter.create("-->");
+        Assert.assertEquals(10, delimiter.skipRepeats(haystack, 1));
+        Assert.assertEquals(2, delimiter.skipRepeats(haystack, 2));
+    }
+
+    @Test
+    public void testSearchStopsAtEnd() throws Exception {
+        final byte[] haystack = buildHaystack("#".getBytes(), 203);
+        haystack[150] = '|';
+        haystack[151] = '|';
+        final DelimiterLocator[] singles = VectorSupport.isAvailable()
+                ? new DelimiterLocator[]{SingleByteLocator.INSTANCE, SwarSingleByteLocator.INSTANCE, VectorSingleByteLocator.INSTANCE}
+                : new DelimiterLocator[]{SingleByteLocator.INSTANCE, SwarSingleByteLocator.INSTANCE};
+        for (final DelimiterLocator locator : singles) {
+            Assert.assertEquals(150, locator.indexOf("|".getBytes(), haystack, 0, 151));
+            Assert.assertEquals(-1, locator.indexOf("|".getBytes(), haystack, 0, 150));
+            Assert.assertEquals(151, locator.skipRepeats("|".getBytes(), haystack, 150, 151));
+        }
+        final DelimiterLocator[] doubles = VectorSupport.isAvailable()
+                ? new DelimiterLocator[]{DoubleByteLocator.INSTANCE, SwarDoubleByteLocator.INSTANCE, VectorDoubleByteLocator.INSTANCE}
+                : new DelimiterLocator[]{DoubleByteLocator.INSTANCE, SwarDoubleByteLocator.INSTANCE};
+        for (final DelimiterLocator locator : doubles) {
+            Assert.assertEquals(150, locator.indexOf("||".getBytes(), haystack, 0, 152));
+            Assert.assertEquals(-1, locator.indexOf("||".getBytes(), haystack, 0, 151));
+        }
+        final Delimiter multi = Delimiter.create("|||");
+        haystack[152] = '|';
+        Assert.assertEquals(150, multi.indexOf(haystack, 0, 153));
+        Assert.assertEquals(-1, multi.indexOf(haystack, 0, 152));
+    }
+
+    @Test
+    public void testIsAsciiSameForAllStrategies() throws Exception {
+        final byte[] bytes = buildHaystack("|".getBytes(), 203);
+        final LocatorStrategy[] strategies = VectorSupport.isAvailable()
+                ? LocatorStrategy.values()
+                : new LocatorStrategy[]{LocatorStrategy.SWAR, LocatorStrategy.SCALAR};
+        for (final LocatorStrategy strategy : strategies) {
+            Assert.assertTrue(strategy.isAscii(bytes, 0, bytes.length));
+            for (final int at : new int[]{0, 7, 8, 63, 64, 150, 202}) {
+                final byte old = bytes[at];
+                bytes[at] = (byte) 0xC3;
+                Assert.assertFalse(strategy + " at " + at, strategy.isAscii(bytes, 0, bytes.length));
+                // the high byte is outside of the range
+                Assert.assertTrue(strategy + " at " + at, strategy.isAscii(bytes, at + 1, bytes.length));
+                Assert.assertTrue(strategy + " at " + at, strategy.isAscii(bytes, 0, at));
+                bytes[at] = old;
+            }
+        }
+    }
+
+    @Test
+    public void testByteClassLocator() throws Exception {
+        final byte[] haystack = "ab\t c\n\n7d".getBytes();
+        final ByteClassLocator space = ByteClassLocator.create(":space:");
+        Assert.assertEquals(2, space.indexOf(null, haystack, 0));
+        Assert.assertEquals(5, space.indexOf(null, haystack, 4));
+        Assert.assertEquals(-1, space.indexOf(null, haystack, 7));
+        Assert.assertEquals(4, space.skipRepeats(null, haystack, 2));
+        Assert.assertEquals(6, space.lastIndexOf(null, haystack, haystack.length - 1, 0));
+        Assert.assertEquals(-1, space.lastIndexOf(null, haystack, 1, 0));
+        Assert.assertTrue(space.isAt(null, haystack, 3, haystack.length));
+        Assert.assertFalse(space.isAt(null, haystack, haystack.length, haystack.length));
+        final ByteClassLocator blank = ByteClassLocator.create(":blank:");
+        Assert.assertEquals(4, blank.skipRepeats(null, haystack, 2));
+        Assert.assertEquals(-1, blank.indexOf(null, haystack, 4));
+        Assert.assertEquals(7, ByteClassLocator.create(":digit:").indexOf(null, haystack, 0));
+        Assert.assertEquals(4, ByteClassLocator.create("c,;").indexOf(null, haystack, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownByteClass() throws Exception {
+        ByteClassLocator.create(":alpha:");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonAsciiByteClass() throws Exception {
+        ByteClassLocator.create("a子");
+    }
+
+    private static byte[] buildHaystack(final byte[] needle, final int length) {
+        final byte[] haystack = new byte[length];
+        for (int i = 0; i < length; i++) {
+            haystack[i] = (byte) ('a' + i % 26);
+        }
+        // place needles on and around the common vector boundaries
+        for (final int at : new int[]{0, 15, 16, 31, 33, 63, 64, 100, length - needle.length}) {
+            System.arraycopy(needle, 0, haystack, at, needle.length);
+        }
+        return haystack;
+    }
+
+    private static void assertSameAsScalar(final DelimiterLocator scalar, final DelimiterLocator vector, final byte[] needle, final byte[] haystack) {
+        for (int offset = 0; offset <= haystack.length; offset++) {
+            Assert.assertEquals("offset " + offset, scalar.indexOf(needle, haystack, offset), vector.indexOf(needle, haystack, offset));
+        }
+    }
+}